@@ -0,0 +1,73 @@
+package ru.practicum.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.practicum.entities.category.model.Category;
+import ru.practicum.entities.event.model.Event;
+import ru.practicum.entities.event.model.EventShortProjection;
+import ru.practicum.entities.event.model.enums.EventState;
+import ru.practicum.entities.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Детерминированные тестовые данные, общие для бенчмарков
+final class BenchmarkData {
+    static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    private BenchmarkData() {
+    }
+
+    // ObjectMapper с теми же настройками, что и у Spring MVC
+    static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    static List<Event> events(int count, int descriptionLength) {
+        String annotation = text(200);
+        String description = text(descriptionLength);
+        List<Event> events = new ArrayList<>(count);
+        for (long i = 1; i <= count; i++) {
+            events.add(Event.builder()
+                    .id(i)
+                    .annotation(annotation)
+                    .category(Category.builder().id(i % 20 + 1).name("Категория " + (i % 20 + 1)).build())
+                    .confirmedRequests(i % 50)
+                    .createdOn(NOW.minusDays(10))
+                    .description(description)
+                    .eventDate(NOW.plusDays(i % 365))
+                    .initiator(User.builder().id(i % 500 + 1).name("Пользователь " + i % 500)
+                            .email("user" + i % 500 + "@example.com").build())
+                    .lat(55.75)
+                    .lon(37.62)
+                    .paid(i % 2 == 0)
+                    .participantLimit(100L)
+                    .publishedOn(NOW.minusDays(5))
+                    .requestModeration(true)
+                    .state(EventState.PUBLISHED)
+                    .title("Событие номер " + i)
+                    .commentsCount(i % 30)
+                    .build());
+        }
+        return events;
+    }
+
+    static List<EventShortProjection> projections(List<Event> events) {
+        return events.stream()
+                .map(event -> new EventShortProjection(event.getId(), event.getAnnotation(),
+                        event.getCategory().getId(), event.getCategory().getName(), event.getEventDate(),
+                        event.getInitiator().getId(), event.getInitiator().getName(), event.getPaid(),
+                        event.getTitle(), event.getConfirmedRequests(), event.getCommentsCount(), null))
+                .toList();
+    }
+
+    static String text(int length) {
+        String word = "событие концерт выставка ";
+        StringBuilder builder = new StringBuilder(length);
+        while (builder.length() < length) {
+            builder.append(word);
+        }
+        return builder.substring(0, length);
+    }
+}
@@ -0,0 +1,79 @@
+package ru.practicum.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.entities.compilation.model.Compilation;
+import ru.practicum.entities.compilation.model.dto.CompilationDto;
+import ru.practicum.entities.compilation.model.mapper.CompilationMapper;
+import ru.practicum.entities.event.model.Event;
+import ru.practicum.entities.event.model.dto.EventShortDto;
+import ru.practicum.entities.event.model.mapper.EventMapper;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Страница подборок: сборка CompilationDto из кратких событий и сериализация ответа
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompilationMapperBenchmark {
+    @Param({"10"})
+    private int compilations;
+
+    @Param({"10", "100"})
+    private int eventsPerCompilation;
+
+    private ObjectMapper objectMapper;
+    private List<Compilation> page;
+    private List<List<EventShortDto>> pageEvents;
+    private List<CompilationDto> dtos;
+
+    @Setup
+    public void setUp() {
+        objectMapper = BenchmarkData.objectMapper();
+        List<Event> events = BenchmarkData.events(compilations * eventsPerCompilation, 2000);
+        page = new ArrayList<>(compilations);
+        pageEvents = new ArrayList<>(compilations);
+        for (int i = 0; i < compilations; i++) {
+            List<Event> slice = events.subList(i * eventsPerCompilation, (i + 1) * eventsPerCompilation);
+            page.add(Compilation.builder()
+                    .id((long) i + 1)
+                    .title("Подборка " + (i + 1))
+                    .pinned(i % 2 == 0)
+                    .events(new HashSet<>(slice))
+                    .build());
+            pageEvents.add(slice.stream().map(EventMapper::toEventShortDto).toList());
+        }
+        dtos = map();
+    }
+
+    @Benchmark
+    public List<CompilationDto> map() {
+        List<CompilationDto> result = new ArrayList<>(page.size());
+        for (int i = 0; i < page.size(); i++) {
+            result.add(CompilationMapper.toCompilationDto(page.get(i), pageEvents.get(i)));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(dtos);
+    }
+}
@@ -0,0 +1,91 @@
+package ru.practicum.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.entities.event.model.Event;
+import ru.practicum.entities.event.model.EventShortProjection;
+import ru.practicum.entities.event.model.dto.EventDto;
+import ru.practicum.entities.event.model.dto.EventShortDto;
+import ru.practicum.entities.event.model.mapper.EventMapper;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Страница событий в полном и кратком представлении: маппинг и сериализация в JSON.
+// Вспомогательный счётчик bytes - размер ответа в байтах
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventSerializationBenchmark {
+    @Param({"1000"})
+    private int pageSize;
+
+    @Param({"2000", "7000"})
+    private int descriptionLength;
+
+    private ObjectMapper objectMapper;
+    private List<Event> events;
+    private List<EventShortProjection> projections;
+    private List<EventDto> fullDtos;
+    private List<EventShortDto> shortDtos;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Payload {
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        objectMapper = BenchmarkData.objectMapper();
+        events = BenchmarkData.events(pageSize, descriptionLength);
+        projections = BenchmarkData.projections(events);
+        fullDtos = events.stream().map(EventMapper::toEventDto).toList();
+        shortDtos = projections.stream().map(EventMapper::toEventShortDto).toList();
+    }
+
+    @Benchmark
+    public List<EventDto> mapFull() {
+        return events.stream().map(EventMapper::toEventDto).toList();
+    }
+
+    @Benchmark
+    public List<EventShortDto> mapShort() {
+        return projections.stream().map(EventMapper::toEventShortDto).toList();
+    }
+
+    @Benchmark
+    public byte[] serializeFull(Payload payload) throws JsonProcessingException {
+        byte[] body = objectMapper.writeValueAsBytes(fullDtos);
+        payload.bytes = body.length;
+        return body;
+    }
+
+    @Benchmark
+    public byte[] serializeShort(Payload payload) throws JsonProcessingException {
+        byte[] body = objectMapper.writeValueAsBytes(shortDtos);
+        payload.bytes = body.length;
+        return body;
+    }
+}
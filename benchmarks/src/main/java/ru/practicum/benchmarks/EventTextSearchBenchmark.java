@@ -0,0 +1,141 @@
+package ru.practicum.benchmarks;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Публичный поиск событий по тексту во встроенном PostgreSQL со схемой из миграций main-service.
+// LEGACY - прежний LOWER(..) LIKE без триграммных индексов: GIN-индексы читаются только bitmap-сканированием,
+// поэтому с enable_bitmapscan = off планировщику остаются полный просмотр и btree-индекс по дате.
+// TRIGRAM - тот же запрос с триграммными индексами, RELEVANCE - сортировка по ts_rank search_vector.
+// jazz встречается в 0,1% событий, festival - в 10%
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class EventTextSearchBenchmark {
+    private static final String FILTER_SQL = "SELECT e.id FROM events e " +
+            "WHERE (LOWER(e.annotation) LIKE ? OR LOWER(e.description) LIKE ? OR LOWER(e.title) LIKE ?) " +
+            "AND e.state = 'PUBLISHED' AND e.event_date > ? ";
+    private static final String BY_DATE_SQL = FILTER_SQL + "ORDER BY e.event_date, e.id LIMIT 10";
+    private static final String BY_RELEVANCE_SQL = FILTER_SQL +
+            "ORDER BY ts_rank(e.search_vector, plainto_tsquery('simple', ?)) DESC, e.event_date LIMIT 10";
+
+    @Param({"10000", "100000", "500000"})
+    private int events;
+
+    @Param({"LEGACY", "TRIGRAM", "RELEVANCE"})
+    private SearchMode mode;
+
+    @Param({"jazz", "festival"})
+    private String text;
+
+    private EmbeddedPostgres postgres;
+    private Connection connection;
+    private PreparedStatement statement;
+
+    public enum SearchMode {
+        LEGACY, TRIGRAM, RELEVANCE
+    }
+
+    @Setup
+    public void setUp() throws IOException, SQLException {
+        postgres = EmbeddedPostgres.builder().start();
+        DataSource dataSource = postgres.getPostgresDatabase();
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/postgresql")
+                .load()
+                .migrate();
+        seed(dataSource);
+
+        connection = dataSource.getConnection();
+        if (mode == SearchMode.LEGACY) {
+            try (Statement setting = connection.createStatement()) {
+                setting.execute("SET enable_bitmapscan = off");
+            }
+        }
+        statement = connection.prepareStatement(mode == SearchMode.RELEVANCE ? BY_RELEVANCE_SQL : BY_DATE_SQL);
+        String pattern = "%" + text.toLowerCase() + "%";
+        statement.setString(1, pattern);
+        statement.setString(2, pattern);
+        statement.setString(3, pattern);
+        statement.setTimestamp(4, Timestamp.valueOf(BenchmarkData.NOW));
+        if (mode == SearchMode.RELEVANCE) {
+            statement.setString(5, text);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException, SQLException {
+        statement.close();
+        connection.close();
+        postgres.close();
+    }
+
+    @Benchmark
+    public List<Long> search() throws SQLException {
+        List<Long> ids = new ArrayList<>(10);
+        try (ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                ids.add(rs.getLong(1));
+            }
+        }
+        return ids;
+    }
+
+    // Тексты из псевдослучайных слов словаря в 5000 слов; половина событий в будущем, 6 из 7 опубликованы
+    private void seed(DataSource dataSource) throws SQLException {
+        try (Connection seedConnection = dataSource.getConnection();
+             Statement seedStatement = seedConnection.createStatement()) {
+            seedStatement.execute("INSERT INTO users (email, name) " +
+                    "SELECT 'user' || i || '@example.com', 'user ' || i FROM generate_series(1, 1000) i");
+            seedStatement.execute("INSERT INTO categories (name) " +
+                    "SELECT 'category ' || i FROM generate_series(1, 20) i");
+            seedStatement.execute("CREATE TEMP TABLE words AS " +
+                    "SELECT k, substr(md5(k::text), 1, 3 + k % 6) AS word FROM generate_series(0, 4999) k");
+            seedStatement.execute("INSERT INTO events (annotation, category_id, created_on, description, event_date, " +
+                    "initiator_id, lat, lon, paid, participant_limit, published_on, request_moderation, state, title) " +
+                    "SELECT " + words(20) + " || CASE WHEN i % 1000 = 0 THEN ' jazz' ELSE '' END, " +
+                    "1 + i % 20, timestamp '" + BenchmarkData.NOW + "' - interval '30 days', " +
+                    words(150) + " || CASE WHEN i % 10 = 0 THEN ' festival' ELSE '' END, " +
+                    "timestamp '" + BenchmarkData.NOW + "' + make_interval(hours => i % 17520 - 8760), " +
+                    "1 + i % 1000, 55.75, 37.62, i % 2 = 0, 0, " +
+                    "timestamp '" + BenchmarkData.NOW + "' - interval '20 days', false, " +
+                    "CASE WHEN i % 7 = 0 THEN 'PENDING' ELSE 'PUBLISHED' END, " + words(5) + " " +
+                    "FROM generate_series(1, " + events + ") i");
+            seedStatement.execute("ANALYZE");
+        }
+    }
+
+    // Фраза из count слов словаря, выбранных по номеру события
+    private static String words(int count) {
+        return "(SELECT string_agg(w.word, ' ' ORDER BY n) FROM generate_series(1, " + count + ") n " +
+                "JOIN words w ON w.k = abs(hashint4(i * 1000 + n)) % 5000)";
+    }
+}
@@ -0,0 +1,110 @@
+package ru.practicum.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.centralRepository.EventRepository;
+import ru.practicum.centralRepository.ParticipationRequestRepository;
+import ru.practicum.centralRepository.UserRepository;
+import ru.practicum.entities.event.model.Event;
+import ru.practicum.entities.request.model.ParticipationRequestStatus;
+import ru.practicum.entities.request.model.ParticipationRequestStatusView;
+import ru.practicum.entities.request.model.dto.EventRequestStatusUpdateRequest;
+import ru.practicum.entities.request.model.dto.EventRequestStatusUpdateResult;
+import ru.practicum.entities.request.model.dto.ParticipationRequestDto;
+import ru.practicum.entities.request.service.ParticipationRequestService;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// Проверки и сборка результата в updateStatus без базы: репозитории заменены заглушками,
+// поэтому в замер попадает только работа сервиса с коллекциями заявок
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParticipationRequestServiceBenchmark {
+    private static final long USER_ID = 1L;
+    private static final long EVENT_ID = 1L;
+
+    @Param({"10", "1000", "10000"})
+    private int requests;
+
+    private ParticipationRequestService service;
+    private EventRequestStatusUpdateRequest confirm;
+    private EventRequestStatusUpdateRequest reject;
+
+    @Setup
+    public void setUp() {
+        Event event = BenchmarkData.events(1, 100).getFirst();
+        event.getInitiator().setId(USER_ID);
+        event.setParticipantLimit((long) requests * 2);
+
+        List<Long> ids = new ArrayList<>(requests);
+        List<ParticipationRequestStatusView> statuses = new ArrayList<>(requests);
+        List<ParticipationRequestDto> dtos = new ArrayList<>(requests);
+        for (long id = 1; id <= requests; id++) {
+            ids.add(id);
+            statuses.add(new ParticipationRequestStatusView(id, ParticipationRequestStatus.PENDING));
+            dtos.add(new ParticipationRequestDto(BenchmarkData.NOW, EVENT_ID, id, id + 1,
+                    ParticipationRequestStatus.CONFIRMED));
+        }
+
+        UserRepository userRepository = stub(UserRepository.class, Map.of("existsById", args -> true));
+        EventRepository eventRepository = stub(EventRepository.class, Map.of(
+                "findById", args -> Optional.of(event),
+                "incrementConfirmedRequests", args -> 1,
+                "findConfirmedRequests", args -> 0L));
+        ParticipationRequestRepository requestRepository = stub(ParticipationRequestRepository.class, Map.of(
+                "findStatusesByEventIdAndIdIn", args -> statuses,
+                "updatePendingStatuses", args -> ((Collection<?>) args[1]).size(),
+                "rejectAllPending", args -> 0,
+                "findDtosByEventIdAndStatusIn", args -> dtos));
+        service = new ParticipationRequestService(requestRepository, userRepository, eventRepository);
+
+        confirm = new EventRequestStatusUpdateRequest(ids, ParticipationRequestStatus.CONFIRMED);
+        reject = new EventRequestStatusUpdateRequest(ids, ParticipationRequestStatus.REJECTED);
+    }
+
+    @Benchmark
+    public EventRequestStatusUpdateResult confirm() {
+        return service.updateStatus(USER_ID, EVENT_ID, confirm);
+    }
+
+    @Benchmark
+    public EventRequestStatusUpdateResult reject() {
+        return service.updateStatus(USER_ID, EVENT_ID, reject);
+    }
+
+    @FunctionalInterface
+    private interface Answer {
+        Object apply(Object[] args);
+    }
+
+    // Заглушка репозитория: отвечает только на перечисленные методы
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type, Map<String, Answer> answers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Answer answer = answers.get(method.getName());
+            if (answer == null) {
+                throw new UnsupportedOperationException("Метод " + method.getName() + " не поддерживается заглушкой");
+            }
+            return answer.apply(args);
+        });
+    }
+}
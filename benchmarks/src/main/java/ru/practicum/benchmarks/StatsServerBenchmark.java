@@ -0,0 +1,148 @@
+package ru.practicum.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import ru.practicum.RequestOutputDto;
+import ru.practicum.model.EndpointHit;
+import ru.practicum.repository.HitJdbcRepository;
+import ru.practicum.service.HitRollupService;
+import ru.practicum.service.HitSketchService;
+import ru.practicum.service.StatsService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// getStats встроенного stats-server на H2 при 10^5-10^7 хитах: точный подсчёт, уникальные ip и HyperLogLog.
+// Хиты распределены по 1000 uri и 30 дням, агрегаты и скетчи пересчитываются после загрузки
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class StatsServerBenchmark {
+    private static final String APP = "ewm-main-service";
+    private static final int URIS = 1000;
+    private static final int IPS = 50_000;
+    private static final int DAYS = 30;
+    private static final int INSERT_BATCH = 10_000;
+
+    @Param({"100000", "1000000", "10000000"})
+    private int hits;
+
+    @Param({"TOTAL", "UNIQUE", "APPROXIMATE"})
+    private StatsMode mode;
+
+    private ConfigurableApplicationContext context;
+    private StatsService statsService;
+    private LocalDateTime start;
+    private LocalDateTime end;
+    private List<String> pageUris;
+
+    public enum StatsMode {
+        TOTAL, UNIQUE, APPROXIMATE
+    }
+
+    // Только репозитории и сервисы stats-server: контроллеры и классы main-service в контекст не попадают
+    @Configuration
+    @EnableAutoConfiguration
+    @ComponentScan({"ru.practicum.repository", "ru.practicum.service"})
+    @EntityScan("ru.practicum.model")
+    @EnableJpaRepositories("ru.practicum.repository")
+    static class StatsServerConfig {
+    }
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(StatsServerConfig.class)
+                .web(WebApplicationType.NONE)
+                // Отдельное имя конфигурации: application.properties обоих сервисов на classpath не читаются
+                .properties(Map.of(
+                        "spring.config.name", "stats-benchmark",
+                        "spring.datasource.url", "jdbc:h2:mem:stats-benchmark",
+                        "spring.datasource.username", "sa",
+                        "spring.flyway.locations", "classpath:db/migration/{vendor}",
+                        "spring.jpa.hibernate.ddl-auto", "none",
+                        "spring.cloud.config.enabled", "false",
+                        "spring.cloud.config.import-check.enabled", "false",
+                        "eureka.client.enabled", "false",
+                        "stats.sketch.rebuild-on-startup", "true"))
+                .run();
+        statsService = context.getBean(StatsService.class);
+
+        end = BenchmarkData.NOW;
+        start = end.minusDays(DAYS);
+        load(context.getBean(HitJdbcRepository.class));
+        context.getBean(HitRollupService.class).rebuild();
+        context.getBean(HitSketchService.class).rebuildOnStartup();
+
+        pageUris = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            pageUris.add("/events/" + (i * 97 % URIS + 1));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    // Статистика для страницы событий: просмотры десяти uri за весь период
+    @Benchmark
+    public List<RequestOutputDto> pageOfUris() {
+        return statsService.getStats(start, end, pageUris, mode == StatsMode.UNIQUE || mode == StatsMode.APPROXIMATE,
+                mode == StatsMode.APPROXIMATE, null);
+    }
+
+    // Топ-10 uri по всем хитам периода
+    @Benchmark
+    public List<RequestOutputDto> topUris() {
+        return statsService.getStats(start, end, null, mode == StatsMode.UNIQUE || mode == StatsMode.APPROXIMATE,
+                mode == StatsMode.APPROXIMATE, 10);
+    }
+
+    // Псевдослучайное, но воспроизводимое распределение хитов по uri, ip и времени
+    private void load(HitJdbcRepository hitJdbcRepository) {
+        long periodSeconds = TimeUnit.DAYS.toSeconds(DAYS);
+        List<EndpointHit> batch = new ArrayList<>(INSERT_BATCH);
+        long seed = 42;
+        for (int i = 0; i < hits; i++) {
+            seed = seed * 6364136223846793005L + 1442695040888963407L;
+            long random = seed >>> 1;
+            batch.add(EndpointHit.builder()
+                    .app(APP)
+                    .uri("/events/" + (random % URIS + 1))
+                    .ip("10.0." + (random >>> 20) % IPS / 256 + "." + (random >>> 20) % 256)
+                    .timestamp(start.plusSeconds((random >>> 12) % periodSeconds))
+                    .build());
+            if (batch.size() == INSERT_BATCH) {
+                hitJdbcRepository.insertAll(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            hitJdbcRepository.insertAll(batch);
+        }
+    }
+}
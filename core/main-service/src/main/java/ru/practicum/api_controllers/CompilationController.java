@@ -49,7 +49,7 @@ public class CompilationController {
             @RequestParam(required = false) Boolean pinned,
             @RequestParam(defaultValue = "0") Integer from,
             @RequestParam(defaultValue = "10") Integer size) {
-        List<CompilationDto> compilations = compilationService.getAllCompilations(pinned, from, size);
+        List<CompilationDto> compilations = compilationService.getAllCompilations(pinned, from, size).compilations();
         return ResponseEntity.ok(compilations);
     }
 
@@ -18,6 +18,7 @@ import java.util.List;
 @RestController
 @RequiredArgsConstructor
 public class EventController {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
 
     private final EventService eventService;
 
@@ -55,11 +56,11 @@ public class EventController {
 
     // Получение событий, созданных пользователем
     @GetMapping("/users/{userId}/events")
-    public ResponseEntity<List<EventDto>> getEventsByUserId(
+    public ResponseEntity<List<EventShortDto>> getEventsByUserId(
             @PathVariable Long userId,
             @RequestParam(defaultValue = "0") Integer from,
             @RequestParam(defaultValue = "10") Integer size) {
-        List<EventDto> events = eventService.findByUserId(userId, from, size);
+        List<EventShortDto> events = eventService.findByUserId(userId, from, size);
         return ResponseEntity.ok(events);
     }
 
@@ -93,7 +94,7 @@ public class EventController {
 
     // Поиск событий по фильтрам
     @GetMapping("/events")
-    public ResponseEntity<List<EventDto>> searchEvents(
+    public ResponseEntity<List<EventShortDto>> searchEvents(
             @RequestParam(required = false) String text,
             @RequestParam(required = false) List<Long> categories,
             @RequestParam(required = false) Boolean paid,
@@ -101,7 +102,8 @@ public class EventController {
             @RequestParam(required = false) @DateTimeFormat(pattern = DateTimeConstants.DATE_TIME_FORMAT) LocalDateTime rangeEnd,
             @RequestParam(defaultValue = "EVENT_DATE") EventSearchOrder sort,
             @RequestParam(defaultValue = "0") Integer from,
-            @RequestParam(defaultValue = "10") Integer size) {
+            @RequestParam(defaultValue = "10") Integer size,
+            @RequestParam(required = false) String after) {
 
         PublicEventSearch search = PublicEventSearch.builder()
                 .text(text)
@@ -112,10 +114,15 @@ public class EventController {
                 .sort(sort)
                 .from(from)
                 .size(size)
+                .after(after)
                 .build();
 
-        List<EventDto> events = eventService.searchCommon(search);
-        return ResponseEntity.ok(events);
+        EventPage page = eventService.searchCommon(search);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.events());
     }
 
     // Получение события по ID
@@ -19,5 +19,7 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
         return findAll(pageable).toList();
     }
 
-    List<Category> findByNameIgnoreCase(String name);
+    boolean existsByNameIgnoreCase(String name);
+
+    boolean existsByNameIgnoreCaseAndIdNot(String name, Long id);
 }
\ No newline at end of file
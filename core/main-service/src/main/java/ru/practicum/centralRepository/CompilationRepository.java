@@ -3,12 +3,17 @@ package ru.practicum.centralRepository;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.entities.compilation.model.Compilation;
+import ru.practicum.entities.compilation.model.CompilationEventId;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface CompilationRepository extends JpaRepository<Compilation, Long> {
-    List<Compilation> findByTitleIgnoreCase(String title);
+    boolean existsByTitleIgnoreCase(String title);
+
+    boolean existsByTitleIgnoreCaseAndIdNot(String title, Long id);
 
     @Query("SELECT c FROM compilations c " +
             "WHERE (:pinned IS NULL OR c.pinned = :pinned)")
@@ -21,4 +26,9 @@ public interface CompilationRepository extends JpaRepository<Compilation, Long>
         }
         return findCompilations(pinned, pageable);
     }
-}
\ No newline at end of file
+
+    // Пары (подборка, событие) для всей страницы подборок одним запросом по таблице связи
+    @Query("SELECT new ru.practicum.entities.compilation.model.CompilationEventId(c.id, e.id) " +
+            "FROM compilations c JOIN c.events e WHERE c.id IN :compilationIds ORDER BY c.id, e.id")
+    List<CompilationEventId> findEventIdsByCompilationIdIn(@Param("compilationIds") Collection<Long> compilationIds);
+}
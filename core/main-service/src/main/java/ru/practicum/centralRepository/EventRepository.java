@@ -1,20 +1,47 @@
 package ru.practicum.centralRepository;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import ru.practicum.entities.event.model.Event;
+import ru.practicum.entities.event.model.EventCursor;
+import ru.practicum.entities.event.model.EventShortProjection;
 import ru.practicum.entities.event.model.dto.AdminEventSearch;
 import ru.practicum.entities.event.model.dto.PublicEventSearch;
+import ru.practicum.entities.event.model.enums.EventSearchOrder;
 import ru.practicum.entities.event.model.enums.EventState;
+import ru.practicum.exception.ValidationException;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+// Запросы по сущностям загружают категорию и инициатора тем же select через entity graph,
+// без отдельного запроса на каждую строку. Публичные списки читают только колонки краткого представления
 public interface EventRepository extends JpaRepository<Event, Long> {
-    @Query("SELECT e FROM events e " +
-            "WHERE (LOWER(e.annotation) LIKE LOWER(CONCAT('%', :text, '%')) " +
+    String SHORT_COLUMNS = "SELECT new ru.practicum.entities.event.model.EventShortProjection(" +
+            "e.id, e.annotation, c.id, c.name, e.eventDate, u.id, u.name, e.paid, e.title, e.confirmedRequests, " +
+            "e.commentsCount, ";
+    String SHORT_SELECT = SHORT_COLUMNS + "CAST(NULL AS Long)) " +
+            "FROM events e JOIN e.category c JOIN e.initiator u ";
+    // Материализованные просмотры читаются тем же запросом: по ним строится курсор сортировки VIEWS
+    String SHORT_SELECT_WITH_VIEWS = SHORT_COLUMNS + "COALESCE(v.views, 0)) " +
+            "FROM events e JOIN e.category c JOIN e.initiator u LEFT JOIN event_views v ON v.eventId = e.id ";
+
+    @Override
+    @EntityGraph(attributePaths = {"category", "initiator"})
+    Optional<Event> findById(Long id);
+
+    // Общие фильтры публичного поиска
+    String COMMON_FILTERS = "WHERE (LOWER(e.annotation) LIKE LOWER(CONCAT('%', :text, '%')) " +
             "OR LOWER(e.description) LIKE LOWER(CONCAT('%', :text, '%')) " +
             "OR LOWER(e.title) LIKE LOWER(CONCAT('%', :text, '%')) OR :text IS NULL) " +
             "AND (:paid IS NULL OR e.paid = :paid) " +
@@ -25,41 +52,167 @@ public interface EventRepository extends JpaRepository<Event, Long> {
             "AND (:onlyAvailable IS NULL OR " +
             "     (:onlyAvailable = TRUE AND (e.participantLimit = 0 OR e.participantLimit > e.confirmedRequests)) " +
             "     OR :onlyAvailable = FALSE) " +
-            "AND e.state = :state " +
-            "ORDER BY " +
-            "CASE WHEN :sort = 'EVENT_DATE' THEN e.eventDate END ASC")
-    List<Event> findCommonEventsByFilters(
+            "AND e.state = :state ";
+
+    // Keyset по (eventDate, id): при afterId == null - первая страница
+    @Query(SHORT_SELECT + COMMON_FILTERS +
+            "AND (:afterId IS NULL OR e.eventDate > :afterDate OR (e.eventDate = :afterDate AND e.id > :afterId)) " +
+            "ORDER BY e.eventDate ASC, e.id ASC")
+    List<EventShortProjection> findCommonEventsByEventDate(
+            @Param("text") String text,
+            @Param("paid") Boolean paid,
+            @Param("categories") List<Long> categories,
+            @Param("rangeStart") LocalDateTime rangeStart,
+            @Param("rangeEnd") LocalDateTime rangeEnd,
+            @Param("onlyAvailable") Boolean onlyAvailable,
+            @Param("state") EventState state,
+            @Param("currentTime") LocalDateTime currentTime,
+            @Param("afterDate") LocalDateTime afterDate,
+            @Param("afterId") Long afterId,
+            Pageable pageable);
+
+    // Глобальная сортировка по материализованным просмотрам, keyset по (views, id)
+    @Query(SHORT_SELECT_WITH_VIEWS + COMMON_FILTERS +
+            "AND (:afterId IS NULL OR COALESCE(v.views, 0) < :afterViews " +
+            "     OR (COALESCE(v.views, 0) = :afterViews AND e.id > :afterId)) " +
+            "ORDER BY COALESCE(v.views, 0) DESC, e.id ASC")
+    List<EventShortProjection> findCommonEventsByViews(
+            @Param("text") String text,
+            @Param("paid") Boolean paid,
+            @Param("categories") List<Long> categories,
+            @Param("rangeStart") LocalDateTime rangeStart,
+            @Param("rangeEnd") LocalDateTime rangeEnd,
+            @Param("onlyAvailable") Boolean onlyAvailable,
+            @Param("state") EventState state,
+            @Param("currentTime") LocalDateTime currentTime,
+            @Param("afterViews") Long afterViews,
+            @Param("afterId") Long afterId,
+            Pageable pageable);
+
+    // Сортировка по денормализованному количеству комментариев, keyset по (commentsCount, id)
+    @Query(SHORT_SELECT + COMMON_FILTERS +
+            "AND (:afterId IS NULL OR e.commentsCount < :afterCount " +
+            "     OR (e.commentsCount = :afterCount AND e.id > :afterId)) " +
+            "ORDER BY e.commentsCount DESC, e.id ASC")
+    List<EventShortProjection> findCommonEventsByComments(
             @Param("text") String text,
             @Param("paid") Boolean paid,
             @Param("categories") List<Long> categories,
             @Param("rangeStart") LocalDateTime rangeStart,
             @Param("rangeEnd") LocalDateTime rangeEnd,
             @Param("onlyAvailable") Boolean onlyAvailable,
-            @Param("sort") String sort,
             @Param("state") EventState state,
             @Param("currentTime") LocalDateTime currentTime,
+            @Param("afterCount") Long afterCount,
+            @Param("afterId") Long afterId,
+            Pageable pageable);
+
+    // Те же фильтры, что и в findCommonEventsByFilters, с сортировкой по ts_rank полнотекстового вектора.
+    // Подстроки ищутся через триграммные GIN-индексы, search_vector поддерживается базой (миграция V1).
+    // Возвращает только id в порядке релевантности, строки дочитываются через findShortByIdIn
+    @Query(value = "SELECT e.id FROM events e " +
+            "WHERE (LOWER(e.annotation) LIKE LOWER(CONCAT('%', :text, '%')) " +
+            "OR LOWER(e.description) LIKE LOWER(CONCAT('%', :text, '%')) " +
+            "OR LOWER(e.title) LIKE LOWER(CONCAT('%', :text, '%'))) " +
+            "AND (CAST(:paid AS boolean) IS NULL OR e.paid = CAST(:paid AS boolean)) " +
+            "AND (:noCategories = TRUE OR e.category_id IN (:categories)) " +
+            "AND ((CAST(:rangeStart AS timestamp) IS NULL AND CAST(:rangeEnd AS timestamp) IS NULL " +
+            "     AND e.event_date > :currentTime) " +
+            "OR (CAST(:rangeStart AS timestamp) IS NOT NULL AND e.event_date >= CAST(:rangeStart AS timestamp)) " +
+            "OR (CAST(:rangeEnd AS timestamp) IS NOT NULL AND e.event_date <= CAST(:rangeEnd AS timestamp))) " +
+            "AND (CAST(:onlyAvailable AS boolean) IS NOT TRUE " +
+            "     OR e.participant_limit = 0 OR e.participant_limit > e.confirmed_requests) " +
+            "AND e.state = :state " +
+            "ORDER BY ts_rank(e.search_vector, plainto_tsquery('simple', :text)) DESC, e.event_date ASC",
+            nativeQuery = true)
+    List<Long> findCommonEventsByRelevance(
+            @Param("text") String text,
+            @Param("paid") Boolean paid,
+            @Param("noCategories") boolean noCategories,
+            @Param("categories") List<Long> categories,
+            @Param("rangeStart") LocalDateTime rangeStart,
+            @Param("rangeEnd") LocalDateTime rangeEnd,
+            @Param("onlyAvailable") Boolean onlyAvailable,
+            @Param("state") String state,
+            @Param("currentTime") LocalDateTime currentTime,
             Pageable pageable);
 
-    default List<Event> findCommonEventsByFilters(PublicEventSearch publicEventSearch) {
+    default List<EventShortProjection> findCommonEventsByFilters(PublicEventSearch publicEventSearch) {
         Pageable pageable = Pageable.unpaged();
         Integer from = publicEventSearch.getFrom();
         Integer size = publicEventSearch.getSize();
+        String after = publicEventSearch.getAfter();
         if (from != null && size != null) {
-            pageable = Pageable.ofSize(size).withPage(from / size);
+            // С курсором смещение не нужно: страница начинается сразу после него
+            pageable = after != null ? Pageable.ofSize(size) : Pageable.ofSize(size).withPage(from / size);
+        }
+        EventSearchOrder sort = publicEventSearch.getSort();
+        if (sort == EventSearchOrder.RELEVANCE && publicEventSearch.getText() != null) {
+            if (after != null) {
+                throw new ValidationException("Курсор не поддерживается для сортировки RELEVANCE");
+            }
+            List<Long> categories = publicEventSearch.getCategories();
+            boolean noCategories = categories == null || categories.isEmpty();
+            List<Long> ids = findCommonEventsByRelevance(
+                    publicEventSearch.getText(),
+                    publicEventSearch.getPaid(),
+                    noCategories,
+                    // IN () недопустим в SQL, при отключённом фильтре подставляем заглушку
+                    noCategories ? List.of(-1L) : categories,
+                    publicEventSearch.getRangeStart(),
+                    publicEventSearch.getRangeEnd(),
+                    publicEventSearch.getOnlyAvailable(),
+                    EventState.PUBLISHED.name(),
+                    LocalDateTime.now(),
+                    pageable);
+            return findShortByIdInOrdered(ids);
+        }
+        if (sort == EventSearchOrder.VIEWS) {
+            EventCursor cursor = after == null ? null : EventCursor.decode(after, EventSearchOrder.VIEWS);
+            return findCommonEventsByViews(
+                    publicEventSearch.getText(),
+                    publicEventSearch.getPaid(),
+                    publicEventSearch.getCategories(),
+                    publicEventSearch.getRangeStart(),
+                    publicEventSearch.getRangeEnd(),
+                    publicEventSearch.getOnlyAvailable(),
+                    EventState.PUBLISHED,
+                    LocalDateTime.now(),
+                    cursor == null ? null : cursor.views(),
+                    cursor == null ? null : cursor.id(),
+                    pageable);
+        }
+        if (sort == EventSearchOrder.COMMENTS) {
+            EventCursor cursor = after == null ? null : EventCursor.decode(after, EventSearchOrder.COMMENTS);
+            return findCommonEventsByComments(
+                    publicEventSearch.getText(),
+                    publicEventSearch.getPaid(),
+                    publicEventSearch.getCategories(),
+                    publicEventSearch.getRangeStart(),
+                    publicEventSearch.getRangeEnd(),
+                    publicEventSearch.getOnlyAvailable(),
+                    EventState.PUBLISHED,
+                    LocalDateTime.now(),
+                    cursor == null ? null : cursor.commentsCount(),
+                    cursor == null ? null : cursor.id(),
+                    pageable);
         }
-        return findCommonEventsByFilters(
+        EventCursor cursor = after == null ? null : EventCursor.decode(after, EventSearchOrder.EVENT_DATE);
+        return findCommonEventsByEventDate(
                 publicEventSearch.getText(),
                 publicEventSearch.getPaid(),
                 publicEventSearch.getCategories(),
                 publicEventSearch.getRangeStart(),
                 publicEventSearch.getRangeEnd(),
                 publicEventSearch.getOnlyAvailable(),
-                publicEventSearch.getSort().name(),
                 EventState.PUBLISHED,
                 LocalDateTime.now(),
+                cursor == null ? null : cursor.eventDate(),
+                cursor == null ? null : cursor.id(),
                 pageable);
     }
 
+    @EntityGraph(attributePaths = {"category", "initiator"})
     @Query("SELECT e FROM events e " +
             "WHERE (:users IS NULL OR e.initiator.id IN :users) " +
             "AND (:states IS NULL OR e.state IN :states) " +
@@ -92,16 +245,85 @@ public interface EventRepository extends JpaRepository<Event, Long> {
         );
     }
 
-    List<Event> findAllByInitiatorIdOrderByEventDateDesc(@Param("user") Long userId, Pageable pageable);
+    @Query(SHORT_SELECT + "WHERE u.id = :userId ORDER BY e.eventDate DESC, e.id DESC")
+    List<EventShortProjection> findShortByInitiatorId(@Param("userId") Long userId, Pageable pageable);
 
-    default List<Event> findAllByInitiatorIdOrderByEventDateDesc(Long userId, Integer from, Integer size) {
+    default List<EventShortProjection> findShortByInitiatorId(Long userId, Integer from, Integer size) {
         if (from != null && size != null) {
-            return findAllByInitiatorIdOrderByEventDateDesc(userId, Pageable.ofSize(size).withPage(from / size));
+            return findShortByInitiatorId(userId, Pageable.ofSize(size).withPage(from / size));
         }
-        return findAllByInitiatorIdOrderByEventDateDesc(userId, Pageable.unpaged());
+        return findShortByInitiatorId(userId, Pageable.unpaged());
     }
 
-    List<Event> findAllByCategoryId(Long categoryId);
+    @Query(SHORT_SELECT + "WHERE e.id IN :ids")
+    List<EventShortProjection> findShortByIdIn(@Param("ids") Collection<Long> ids);
+
+    // IN не сохраняет порядок, восстанавливаем его по исходному списку id
+    default List<EventShortProjection> findShortByIdInOrdered(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, EventShortProjection> byId = findShortByIdIn(ids).stream()
+                .collect(Collectors.toMap(EventShortProjection::id, Function.identity()));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Query("SELECT e.id FROM events e WHERE e.state = :state AND e.id > :afterId ORDER BY e.id ASC")
+    List<Long> findIdsByStateAfter(@Param("state") EventState state, @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT e.id FROM events e WHERE e.state = :state AND e.id IN :ids ORDER BY e.id ASC")
+    List<Long> findIdsByStateAndIdIn(@Param("state") EventState state, @Param("ids") Collection<Long> ids);
+
+    boolean existsByCategoryId(Long categoryId);
+
+    @Query("SELECT e.id FROM events e WHERE e.id > :afterId ORDER BY e.id ASC")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // comments_count не пишется через сущность, поэтому меняется нативными запросами
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE events SET comments_count = comments_count + 1 WHERE id = :eventId", nativeQuery = true)
+    int incrementCommentsCount(@Param("eventId") Long eventId);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE events SET comments_count = comments_count - 1 WHERE id = :eventId AND comments_count > 0",
+            nativeQuery = true)
+    int decrementCommentsCount(@Param("eventId") Long eventId);
+
+    // Блокирует строки пачки в порядке id до пересчёта: инкремент из параллельной транзакции ждёт
+    // конца сверки или уже закоммичен и попадает в подсчёт, поэтому сверка его не затирает
+    @Query(value = "SELECT id FROM events WHERE id IN (:ids) ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Long> lockByIdIn(@Param("ids") List<Long> ids);
+
+    // Пересчитывает счётчик по таблице comments; обновляются только разошедшиеся строки.
+    // Вызывается после lockByIdIn в той же транзакции
+    @Modifying
+    @Query(value = "UPDATE events e SET comments_count = t.cnt " +
+            "FROM (SELECT ev.id, COUNT(c.id) AS cnt FROM events ev LEFT JOIN comments c ON c.event_id = ev.id " +
+            "      WHERE ev.id IN (:ids) GROUP BY ev.id) t " +
+            "WHERE e.id = t.id AND e.comments_count <> t.cnt",
+            nativeQuery = true)
+    int reconcileCommentsCount(@Param("ids") List<Long> ids);
+
+    // Резервирует count мест одним условным UPDATE: строка блокируется, условие перепроверяется
+    // после параллельных коммитов, поэтому лимит не превышается. 0 - мест не хватило
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE events e SET e.confirmedRequests = e.confirmedRequests + :count " +
+            "WHERE e.id = :eventId " +
+            "AND (e.participantLimit = 0 OR e.confirmedRequests + :count <= e.participantLimit)")
+    int incrementConfirmedRequests(@Param("eventId") Long eventId, @Param("count") long count);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE events e SET e.confirmedRequests = e.confirmedRequests - :count " +
+            "WHERE e.id = :eventId AND e.confirmedRequests >= :count")
+    int decrementConfirmedRequests(@Param("eventId") Long eventId, @Param("count") long count);
+
+    // Актуальное значение из базы, а не из загруженной ранее сущности
+    @Query("SELECT e.confirmedRequests FROM events e WHERE e.id = :eventId")
+    long findConfirmedRequests(@Param("eventId") Long eventId);
 
+    @EntityGraph(attributePaths = {"category", "initiator"})
     List<Event> findAllByIdIn(List<Long> list);
 }
\ No newline at end of file
@@ -0,0 +1,7 @@
+package ru.practicum.centralRepository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import ru.practicum.entities.event.model.EventViews;
+
+public interface EventViewsRepository extends JpaRepository<EventViews, Long> {
+}
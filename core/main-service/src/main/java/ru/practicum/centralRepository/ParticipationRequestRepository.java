@@ -1,14 +1,46 @@
 package ru.practicum.centralRepository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.entities.request.model.ParticipationRequest;
+import ru.practicum.entities.request.model.ParticipationRequestStatus;
+import ru.practicum.entities.request.model.ParticipationRequestStatusView;
+import ru.practicum.entities.request.model.dto.ParticipationRequestDto;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ParticipationRequestRepository extends JpaRepository<ParticipationRequest, Long> {
     List<ParticipationRequest> findAllByRequesterId(Long userId);
 
-    List<ParticipationRequest> findAllByEventIdAndRequesterId(Long eventId, Long userId);
-
     List<ParticipationRequest> findAllByEventId(Long eventId);
-}
\ No newline at end of file
+
+    @Query("SELECT new ru.practicum.entities.request.model.ParticipationRequestStatusView(r.id, r.status) " +
+            "FROM requests r WHERE r.event.id = :eventId AND r.id IN :ids")
+    List<ParticipationRequestStatusView> findStatusesByEventIdAndIdIn(@Param("eventId") Long eventId,
+                                                                      @Param("ids") Collection<Long> ids);
+
+    // Переводит из PENDING только перечисленные заявки события; возвращает число изменённых строк
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE requests r SET r.status = :status " +
+            "WHERE r.event.id = :eventId AND r.id IN :ids " +
+            "AND r.status = ru.practicum.entities.request.model.ParticipationRequestStatus.PENDING")
+    int updatePendingStatuses(@Param("eventId") Long eventId,
+                              @Param("ids") Collection<Long> ids,
+                              @Param("status") ParticipationRequestStatus status);
+
+    // Отклоняет все оставшиеся ожидающие заявки события одним запросом
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE requests r SET r.status = ru.practicum.entities.request.model.ParticipationRequestStatus.REJECTED " +
+            "WHERE r.event.id = :eventId " +
+            "AND r.status = ru.practicum.entities.request.model.ParticipationRequestStatus.PENDING")
+    int rejectAllPending(@Param("eventId") Long eventId);
+
+    @Query("SELECT new ru.practicum.entities.request.model.dto.ParticipationRequestDto(" +
+            "r.created, r.event.id, r.id, r.requester.id, r.status) " +
+            "FROM requests r WHERE r.event.id = :eventId AND r.status IN :statuses ORDER BY r.id")
+    List<ParticipationRequestDto> findDtosByEventIdAndStatusIn(@Param("eventId") Long eventId,
+                                                               @Param("statuses") Collection<ParticipationRequestStatus> statuses);
+}
@@ -25,5 +25,5 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     Optional<User> findById(Long id);
 
-    Optional<User> findByEmail(String email);
+    boolean existsByEmail(String email);
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package ru.practicum.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+// Кэш справочных данных. Прокси кэша оборачивает транзакцию: сброс происходит уже после коммита,
+// и параллельное чтение не вернёт в кэш старое значение. Между экземплярами сервиса
+// согласованность обеспечивает короткий TTL (spring.cache.caffeine.spec)
+@Configuration
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+public class CacheConfig {
+    public static final String CATEGORIES = "categories";
+    public static final String CATEGORY = "category";
+    public static final String PINNED_COMPILATIONS = "pinnedCompilations";
+}
@@ -0,0 +1,99 @@
+package ru.practicum.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import ru.practicum.exception.handler.ApiError;
+import ru.practicum.utils.DateTimeConstants;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// С виртуальными потоками Tomcat больше не ограничивает число одновременных запросов размером пула,
+// и все они встают в очередь за соединением HikariCP. Фильтр пропускает не больше запросов, чем соединений
+// в пуле за вычетом reserved-connections (задачи по расписанию и ветки fan-out), остальные ждут wait-ms
+// и получают 503 - быстрый отказ вместо таймаута соединения с базой
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+    private final Semaphore permits;
+    private final long waitMs;
+    private final ObjectMapper objectMapper;
+    private final Counter rejected;
+
+    public ConcurrencyLimitFilter(ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+                                  @Value("${concurrency-limit.reserved-connections:4}") int reservedConnections,
+                                  @Value("${concurrency-limit.wait-ms:100}") long waitMs) {
+        int maxRequests = Math.max(1, poolSize - reservedConnections);
+        this.permits = new Semaphore(maxRequests);
+        this.waitMs = waitMs;
+        this.objectMapper = objectMapper;
+        Gauge.builder("http.server.requests.in.flight", permits, p -> maxRequests - p.availablePermits())
+                .description("Запросы, обрабатываемые в данный момент")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("http.server.requests.rejected")
+                .description("Запросы, отклонённые из-за превышения лимита одновременных запросов")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(waitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            reject(response);
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+
+    // Эндпоинты actuator отвечают и под перегрузкой: по ним видно, что происходит
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        rejected.increment();
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader("Retry-After", "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), ApiError.builder()
+                .errors(List.of())
+                .status(HttpStatus.SERVICE_UNAVAILABLE.toString())
+                .reason("Сервис перегружен.")
+                .message("Превышен лимит одновременных запросов, повторите запрос позже")
+                .timestamp(DateTimeConstants.toString(LocalDateTime.now()))
+                .build());
+    }
+}
@@ -0,0 +1,25 @@
+package ru.practicum.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Пул для параллельных блокирующих вызовов внутри запроса (stats-server, независимые запросы к базе).
+// С spring.threads.virtual.enabled=true каждая задача получает виртуальный поток: блокировка на JDBC
+// или HTTP не занимает поток платформы, а число одновременных задач ограничивают bulkhead и пул соединений
+@Configuration
+public class ExecutorConfig {
+    public static final String FAN_OUT_EXECUTOR = "fanOutExecutor";
+
+    @Bean(name = FAN_OUT_EXECUTOR, destroyMethod = "shutdownNow")
+    public ExecutorService fanOutExecutor(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                                          @Value("${fan-out.pool-size:32}") int poolSize) {
+        if (virtualThreads) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("fan-out-", 0).factory());
+        }
+        return Executors.newFixedThreadPool(poolSize, Thread.ofPlatform().name("fan-out-", 0).daemon().factory());
+    }
+}
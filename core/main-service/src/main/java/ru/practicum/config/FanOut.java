@@ -0,0 +1,57 @@
+package ru.practicum.config;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.exception.ServiceUnavailableException;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+// Параллельное выполнение независимых шагов запроса в fanOutExecutor с общим дедлайном:
+// все ветки одного запроса ждут не дольше timeout-ms от начала fan-out, время ответа - максимум веток, а не сумма.
+// В задачи не передаётся контекст запроса, поэтому в них выполняются только обращения к базе
+@Component
+public class FanOut {
+    private final ExecutorService executor;
+    private final long timeoutNanos;
+
+    public FanOut(@Qualifier(ExecutorConfig.FAN_OUT_EXECUTOR) ExecutorService executor,
+                  @Value("${fan-out.timeout-ms:2000}") long timeoutMs) {
+        this.executor = executor;
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+    }
+
+    // Дедлайн в единицах System.nanoTime()
+    public long deadline() {
+        return System.nanoTime() + timeoutNanos;
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, executor);
+    }
+
+    // Исключения задачи пробрасываются как есть, чтобы NotFoundException и другие давали прежний ответ
+    public <T> T join(CompletableFuture<T> future, long deadline) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException | CancellationException e) {
+            future.cancel(true);
+            throw new ServiceUnavailableException("Превышено время ожидания ответа");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new ServiceUnavailableException("Ожидание ответа прервано");
+        }
+    }
+}
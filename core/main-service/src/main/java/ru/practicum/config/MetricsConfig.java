@@ -0,0 +1,56 @@
+package ru.practicum.config;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.observation.ObservationFilter;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.aop.ObservedAspect;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.boot.actuate.metrics.data.DefaultRepositoryTagsProvider;
+import org.springframework.boot.actuate.metrics.data.RepositoryTagsProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+// Метрики горячего пути. Методы сервисов с @Observed(name = "ewm.service") дают таймер и span трассировки,
+// запросы репозиториев - таймер spring.data.repository.invocations. Оба помечаются тегом endpoint -
+// шаблоном HTTP-запроса, в рамках которого выполнялся вызов, чтобы время /events раскладывалось по слоям
+@Configuration
+public class MetricsConfig {
+    public static final String SERVICE_OBSERVATION = "ewm.service";
+    public static final String ENDPOINT_TAG = "endpoint";
+
+    // Вызовы вне HTTP-запроса: задачи по расписанию и фоновые потоки
+    private static final String NO_ENDPOINT = "none";
+
+    @Bean
+    public ObservedAspect observedAspect(ObservationRegistry observationRegistry) {
+        return new ObservedAspect(observationRegistry);
+    }
+
+    @Bean
+    public ObservationFilter endpointObservationFilter() {
+        return context -> SERVICE_OBSERVATION.equals(context.getName())
+                ? context.addLowCardinalityKeyValue(KeyValue.of(ENDPOINT_TAG, currentEndpoint()))
+                : context;
+    }
+
+    @Bean
+    public RepositoryTagsProvider repositoryTagsProvider() {
+        DefaultRepositoryTagsProvider defaultTags = new DefaultRepositoryTagsProvider();
+        return invocation -> Tags.of(defaultTags.repositoryTags(invocation)).and(Tag.of(ENDPOINT_TAG, currentEndpoint()));
+    }
+
+    // Метод и шаблон пути, например "GET /events/{eventId}": число значений ограничено числом маршрутов
+    public static String currentEndpoint() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return NO_ENDPOINT;
+        }
+        HttpServletRequest request = attributes.getRequest();
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern == null ? NO_ENDPOINT : request.getMethod() + " " + pattern;
+    }
+}
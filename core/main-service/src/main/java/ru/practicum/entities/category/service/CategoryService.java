@@ -1,10 +1,16 @@
 package ru.practicum.entities.category.service;
 
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.centralRepository.CategoryRepository;
 import ru.practicum.centralRepository.EventRepository;
+import ru.practicum.config.CacheConfig;
+import ru.practicum.config.MetricsConfig;
 import ru.practicum.entities.category.model.Category;
 import ru.practicum.entities.category.model.dto.CategoryDto;
 import ru.practicum.entities.category.model.mapper.CategoryMapper;
@@ -14,16 +20,19 @@ import ru.practicum.exception.NotFoundException;
 import java.util.List;
 
 @Service
+@Observed(name = MetricsConfig.SERVICE_OBSERVATION)
 @RequiredArgsConstructor
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
     private final EventRepository eventRepository;
 
+    @Cacheable(CacheConfig.CATEGORIES)
     public List<CategoryDto> getAllCategories(Integer from, Integer size) {
         return categoryRepository.findCategories(from, size).stream().map(CategoryMapper::categoryToDto).toList();
     }
 
+    @Cacheable(CacheConfig.CATEGORY)
     public CategoryDto getCategoryById(Long catId) {
         return CategoryMapper.categoryToDto(
                 categoryRepository.findById(catId).orElseThrow(
@@ -33,8 +42,9 @@ public class CategoryService {
     }
 
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.CATEGORIES, allEntries = true)
     public CategoryDto createCategory(CategoryDto newCategoryDto) {
-        if (!categoryRepository.findByNameIgnoreCase(newCategoryDto.getName()).isEmpty()) {
+        if (categoryRepository.existsByNameIgnoreCase(newCategoryDto.getName())) {
             throw new ConditionsNotMetException("Категория с именем " + newCategoryDto.getName() + " уже существует");
         }
         return CategoryMapper.categoryToDto(
@@ -43,23 +53,32 @@ public class CategoryService {
     }
 
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.CATEGORIES, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.CATEGORY, key = "#catId")
+    })
     public void deleteCategory(Long catId) {
-        categoryRepository.findById(catId).orElseThrow(() ->
-                new NotFoundException("Категория с id=" + catId + " не найдена")
-        );
-        if (!eventRepository.findAllByCategoryId(catId).isEmpty()) {
+        if (!categoryRepository.existsById(catId)) {
+            throw new NotFoundException("Категория с id=" + catId + " не найдена");
+        }
+        if (eventRepository.existsByCategoryId(catId)) {
             throw new ConditionsNotMetException("Удаление категории невозможно, так как она используется в событиях");
         }
         categoryRepository.deleteById(catId);
     }
 
+    // Название категории входит и в события закреплённых подборок
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.CATEGORIES, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.CATEGORY, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.PINNED_COMPILATIONS, allEntries = true)
+    })
     public CategoryDto updateCategory(Long id, CategoryDto newCategoryDto) {
         Category category = categoryRepository.findById(id).orElseThrow(() ->
                 new NotFoundException("Категория с id=" + id + " не найдена")
         );
-        List<Category> categories = categoryRepository.findByNameIgnoreCase(newCategoryDto.getName());
-        if (!categories.isEmpty() && !categories.get(0).getId().equals(id)) {
+        if (categoryRepository.existsByNameIgnoreCaseAndIdNot(newCategoryDto.getName(), id)) {
             throw new ConditionsNotMetException("Категория с именем " + newCategoryDto.getName() + " уже существует");
         }
 
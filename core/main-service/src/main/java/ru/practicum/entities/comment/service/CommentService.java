@@ -1,5 +1,6 @@
 package ru.practicum.entities.comment.service;
 
+import io.micrometer.observation.annotation.Observed;
 import lombok.AllArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -8,7 +9,7 @@ import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.centralRepository.CommentRepository;
 import ru.practicum.centralRepository.EventRepository;
 import ru.practicum.centralRepository.UserRepository;
-import ru.practicum.client.StatClient;
+import ru.practicum.config.MetricsConfig;
 import ru.practicum.dto.StatsDto;
 import ru.practicum.entities.comment.model.Comment;
 import ru.practicum.entities.comment.model.CommentDto;
@@ -19,6 +20,7 @@ import ru.practicum.entities.user.model.User;
 import ru.practicum.exception.AccessDeniedException;
 import ru.practicum.exception.DateValidationException;
 import ru.practicum.exception.EntityNotFoundException;
+import ru.practicum.stats.ResilientStatsClient;
 import ru.practicum.utils.DateTimeConstants;
 
 import java.time.LocalDateTime;
@@ -27,12 +29,13 @@ import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
+@Observed(name = MetricsConfig.SERVICE_OBSERVATION)
 @AllArgsConstructor
 public class CommentService {
     private final CommentRepository commentRepository;
     private final UserRepository userRepository;
     private final EventRepository eventRepository;
-    private final StatClient statsClient;
+    private final ResilientStatsClient statsClient;
 
     @Transactional(readOnly = true)
     public List<CommentDto> getComments(LocalDateTime rangeStart, LocalDateTime rangeEnd, Integer from, Integer size) {
@@ -53,6 +56,7 @@ public class CommentService {
         Comment comment = commentRepository.findById(commentId)
                 .orElseThrow(() -> new EntityNotFoundException("Комментарий с id " + commentId + " не найден"));
         commentRepository.delete(comment);
+        eventRepository.decrementCommentsCount(comment.getEvent().getId());
     }
 
     @Transactional(readOnly = true)
@@ -84,8 +88,9 @@ public class CommentService {
                 DateTimeConstants.toString(rangeStart),
                 DateTimeConstants.toString(rangeEnd),
                 uris,
-                true
-        );
+                true,
+                false
+        ).stats();
 
         // Создаем map для быстрого доступа к статистике
         Map<String, Long> statsMap = stats.stream()
@@ -127,6 +132,7 @@ public class CommentService {
                 .orElseThrow(() -> new EntityNotFoundException("Событие с id " + eventId + " не найдено"));
         Comment comment = CommentMapper.toComment(commentNewDto, user, event);
         Comment savedComment = commentRepository.save(comment);
+        eventRepository.incrementCommentsCount(eventId);
         return CommentMapper.toCommentDto(savedComment);
     }
 
@@ -159,5 +165,6 @@ public class CommentService {
             throw new AccessDeniedException("Пользователь с id " + userId + " не имеет прав на удаление этого комментария");
         }
         commentRepository.delete(comment);
+        eventRepository.decrementCommentsCount(comment.getEvent().getId());
     }
 }
\ No newline at end of file
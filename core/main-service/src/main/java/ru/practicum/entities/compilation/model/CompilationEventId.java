@@ -0,0 +1,5 @@
+package ru.practicum.entities.compilation.model;
+
+// Строка связи подборки с событием из events_compilations
+public record CompilationEventId(Long compilationId, Long eventId) {
+}
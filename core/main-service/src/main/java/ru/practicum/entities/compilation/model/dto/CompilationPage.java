@@ -0,0 +1,7 @@
+package ru.practicum.entities.compilation.model.dto;
+
+import java.util.List;
+
+// Страница подборок; degraded - просмотры запасные, такую страницу не кэшируем
+public record CompilationPage(List<CompilationDto> compilations, boolean degraded) {
+}
@@ -6,7 +6,9 @@ import ru.practicum.entities.compilation.model.Compilation;
 import ru.practicum.entities.compilation.model.dto.CompilationDto;
 import ru.practicum.entities.compilation.model.dto.NewCompilationDto;
 import ru.practicum.entities.event.model.Event;
+import ru.practicum.entities.event.model.dto.EventShortDto;
 
+import java.util.List;
 import java.util.Set;
 
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
@@ -19,12 +21,12 @@ public class CompilationMapper {
                 .build();
     }
 
-    public static CompilationDto toCompilationDto(Compilation compilation) {
+    public static CompilationDto toCompilationDto(Compilation compilation, List<EventShortDto> events) {
         return CompilationDto.builder()
                 .id(compilation.getId())
                 .title(compilation.getTitle())
                 .pinned(compilation.getPinned())
-                .events(compilation.getEvents().stream().toList())
+                .events(events)
                 .build();
     }
 }
\ No newline at end of file
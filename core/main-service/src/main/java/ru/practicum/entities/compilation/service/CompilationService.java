@@ -1,43 +1,67 @@
 package ru.practicum.entities.compilation.service;
 
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.centralRepository.CompilationRepository;
 import ru.practicum.centralRepository.EventRepository;
+import ru.practicum.config.CacheConfig;
+import ru.practicum.config.MetricsConfig;
 import ru.practicum.entities.compilation.model.Compilation;
+import ru.practicum.entities.compilation.model.CompilationEventId;
 import ru.practicum.entities.compilation.model.dto.CompilationDto;
+import ru.practicum.entities.compilation.model.dto.CompilationPage;
 import ru.practicum.entities.compilation.model.dto.NewCompilationDto;
 import ru.practicum.entities.compilation.model.dto.UpdateCompilationRequest;
 import ru.practicum.entities.compilation.model.mapper.CompilationMapper;
 import ru.practicum.entities.event.model.Event;
+import ru.practicum.entities.event.model.EventShortProjection;
+import ru.practicum.entities.event.model.dto.EventShortDto;
+import ru.practicum.entities.event.model.mapper.EventMapper;
 import ru.practicum.exception.ConditionsNotMetException;
 import ru.practicum.exception.NotFoundException;
+import ru.practicum.stats.EventViewsCache;
+import ru.practicum.stats.ViewCounts;
 
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
+@Observed(name = MetricsConfig.SERVICE_OBSERVATION)
 @RequiredArgsConstructor
 public class CompilationService {
 
     private final CompilationRepository compilationRepository;
     private final EventRepository eventRepository;
-
-    public List<CompilationDto> getAllCompilations(Boolean pinned, Integer from, Integer size) {
-        return compilationRepository.findCompilations(pinned, from, size).stream().map(CompilationMapper::toCompilationDto).toList();
+    private final EventViewsCache eventViewsCache;
+
+    // Кэшируются только закреплённые подборки - их показывает главная страница. Страница с запасными
+    // просмотрами не кэшируется, чтобы после восстановления stats-server не отдавать её ещё 30 с
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.PINNED_COMPILATIONS, condition = "#pinned != null && #pinned",
+            unless = "#result.degraded()")
+    public CompilationPage getAllCompilations(Boolean pinned, Integer from, Integer size) {
+        return toCompilationDtos(compilationRepository.findCompilations(pinned, from, size));
     }
 
+    @Transactional(readOnly = true)
     public CompilationDto getCompilationById(Long compId) {
         return compilationRepository.findById(compId)
-                .map(CompilationMapper::toCompilationDto)
+                .map(this::toCompilationDto)
                 .orElse(null);
     }
 
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PINNED_COMPILATIONS, allEntries = true)
     public CompilationDto createCompilation(NewCompilationDto compilationDto) {
-        if (!compilationRepository.findByTitleIgnoreCase(compilationDto.getTitle()).isEmpty()) {
+        if (compilationRepository.existsByTitleIgnoreCase(compilationDto.getTitle())) {
             throw new ConditionsNotMetException("Подборка с названием " + compilationDto.getTitle() + " уже существует");
         }
 
@@ -46,26 +70,28 @@ public class CompilationService {
             events = new HashSet<>(eventRepository.findAllByIdIn(compilationDto.getEvents().stream().toList()));
         }
 
-        return CompilationMapper.toCompilationDto(
+        return toCompilationDto(
                 compilationRepository.save(CompilationMapper.newCompilationDtoToCompilation(compilationDto, events))
         );
     }
 
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PINNED_COMPILATIONS, allEntries = true)
     public void deleteCompilation(Long compilationId) {
-        compilationRepository.findById(compilationId).orElseThrow(() ->
-                new NotFoundException("Подборка c id=" + compilationId + " не найдена"));
+        if (!compilationRepository.existsById(compilationId)) {
+            throw new NotFoundException("Подборка c id=" + compilationId + " не найдена");
+        }
         compilationRepository.deleteById(compilationId);
     }
 
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PINNED_COMPILATIONS, allEntries = true)
     public CompilationDto updateCompilation(Long compilationId, UpdateCompilationRequest updateCompilationRequest) {
         Compilation compilation = compilationRepository.findById(compilationId).orElseThrow(() ->
                 new NotFoundException("Подборка с id=" + compilationId + " не найдена"));
 
         if (updateCompilationRequest.getTitle() != null) {
-            if (!compilationRepository.findByTitleIgnoreCase(updateCompilationRequest.getTitle()).isEmpty() &&
-                    !compilation.getTitle().equalsIgnoreCase(updateCompilationRequest.getTitle())) {
+            if (compilationRepository.existsByTitleIgnoreCaseAndIdNot(updateCompilationRequest.getTitle(), compilationId)) {
                 throw new ConditionsNotMetException("Подборка с названием " + updateCompilationRequest.getTitle() + " уже существует");
             }
             compilation.setTitle(updateCompilationRequest.getTitle());
@@ -83,7 +109,43 @@ public class CompilationService {
             compilation.setPinned(updateCompilationRequest.getPinned());
         }
 
-        return CompilationMapper.toCompilationDto(compilationRepository.save(compilation));
+        return toCompilationDto(compilationRepository.save(compilation));
+    }
+
+    private CompilationDto toCompilationDto(Compilation compilation) {
+        return toCompilationDtos(List.of(compilation)).compilations().getFirst();
+    }
+
+    // Страница подборок собирается фиксированным числом запросов: связи всех подборок, краткие события
+    // и просмотры пачкой. Ленивая коллекция events не читается
+    private CompilationPage toCompilationDtos(List<Compilation> compilations) {
+        if (compilations.isEmpty()) {
+            return new CompilationPage(List.of(), false);
+        }
+        List<CompilationEventId> links = compilationRepository.findEventIdsByCompilationIdIn(
+                compilations.stream().map(Compilation::getId).toList());
+        Set<Long> eventIds = links.stream().map(CompilationEventId::eventId).collect(Collectors.toSet());
+
+        Map<Long, EventShortDto> events = new HashMap<>();
+        boolean degraded = false;
+        if (!eventIds.isEmpty()) {
+            ViewCounts views = eventViewsCache.getViews(eventIds);
+            degraded = views.degraded();
+            for (EventShortProjection event : eventRepository.findShortByIdIn(eventIds)) {
+                EventShortDto dto = EventMapper.toEventShortDto(event);
+                dto.setViews(views.get(event.id()));
+                events.put(event.id(), dto);
+            }
+        }
+
+        Map<Long, List<EventShortDto>> eventsByCompilation = links.stream()
+                .filter(link -> events.containsKey(link.eventId()))
+                .collect(Collectors.groupingBy(CompilationEventId::compilationId,
+                        Collectors.mapping(link -> events.get(link.eventId()), Collectors.toList())));
+        return new CompilationPage(compilations.stream()
+                .map(compilation -> CompilationMapper.toCompilationDto(compilation,
+                        eventsByCompilation.getOrDefault(compilation.getId(), List.of())))
+                .toList(), degraded);
     }
 
 }
\ No newline at end of file
@@ -16,13 +16,17 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.DynamicUpdate;
 import ru.practicum.entities.category.model.Category;
 import ru.practicum.entities.event.model.enums.EventState;
 import ru.practicum.entities.user.model.User;
 
 import java.time.LocalDateTime;
 
+// UPDATE пишет только изменённые колонки: сохранение события не перетирает confirmed_requests,
+// который меняется атомарными запросами EventRepository
 @Entity(name = "events")
+@DynamicUpdate
 @Builder
 @Getter
 @Setter
@@ -88,4 +92,9 @@ public class Event {
 
     @Column(nullable = false)
     private String title;
+
+    // Меняется только атомарными запросами EventRepository при добавлении и удалении комментариев
+    @Builder.Default
+    @Column(name = "comments_count", nullable = false, insertable = false, updatable = false)
+    private Long commentsCount = 0L;
 }
@@ -0,0 +1,69 @@
+package ru.practicum.entities.event.model;
+
+import ru.practicum.entities.event.model.enums.EventSearchOrder;
+import ru.practicum.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+// Курсор keyset-пагинации публичного поиска: значение ключа сортировки и id последнего события страницы.
+// Передаётся клиенту как непрозрачная строка Base64 вида "SORT:value:id"
+public record EventCursor(EventSearchOrder sort, String value, Long id) {
+
+    public static EventCursor ofEventDate(LocalDateTime eventDate, Long id) {
+        return new EventCursor(EventSearchOrder.EVENT_DATE, eventDate.toString(), id);
+    }
+
+    public static EventCursor ofViews(long views, Long id) {
+        return new EventCursor(EventSearchOrder.VIEWS, Long.toString(views), id);
+    }
+
+    public static EventCursor ofCommentsCount(long commentsCount, Long id) {
+        return new EventCursor(EventSearchOrder.COMMENTS, Long.toString(commentsCount), id);
+    }
+
+    public static EventCursor decode(String cursor, EventSearchOrder expectedSort) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sortEnd = decoded.indexOf(':');
+            int valueEnd = decoded.lastIndexOf(':');
+            EventSearchOrder sort = EventSearchOrder.valueOf(decoded.substring(0, sortEnd));
+            EventCursor result = new EventCursor(sort, decoded.substring(sortEnd + 1, valueEnd),
+                    Long.parseLong(decoded.substring(valueEnd + 1)));
+            if (sort != expectedSort) {
+                throw new ValidationException("Курсор получен для другой сортировки: " + sort);
+            }
+            // Проверяем, что значение разбирается под свой тип ключа
+            if (sort == EventSearchOrder.VIEWS) {
+                result.views();
+            } else if (sort == EventSearchOrder.COMMENTS) {
+                result.commentsCount();
+            } else {
+                result.eventDate();
+            }
+            return result;
+        } catch (ValidationException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new ValidationException("Некорректный курсор: " + cursor);
+        }
+    }
+
+    public String encode() {
+        String raw = sort.name() + ":" + value + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDateTime eventDate() {
+        return LocalDateTime.parse(value);
+    }
+
+    public long views() {
+        return Long.parseLong(value);
+    }
+
+    public long commentsCount() {
+        return Long.parseLong(value);
+    }
+}
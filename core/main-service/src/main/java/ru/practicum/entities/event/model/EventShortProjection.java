@@ -0,0 +1,19 @@
+package ru.practicum.entities.event.model;
+
+import java.time.LocalDateTime;
+
+// Плоская выборка колонок для списков событий: description и прочие тяжёлые поля не читаются.
+// materializedViews - значение из event_views, заполняется только в выборке с сортировкой VIEWS
+public record EventShortProjection(Long id,
+                                   String annotation,
+                                   Long categoryId,
+                                   String categoryName,
+                                   LocalDateTime eventDate,
+                                   Long initiatorId,
+                                   String initiatorName,
+                                   Boolean paid,
+                                   String title,
+                                   Long confirmedRequests,
+                                   Long commentsCount,
+                                   Long materializedViews) {
+}
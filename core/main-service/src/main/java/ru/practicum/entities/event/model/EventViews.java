@@ -0,0 +1,32 @@
+package ru.practicum.entities.event.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+// Материализованные просмотры опубликованных событий, периодически синхронизируются со stats-server.
+// Нужны для глобальной сортировки по просмотрам прямо в запросе к базе
+@Entity(name = "event_views")
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventViews {
+    @Id
+    @Column(name = "event_id")
+    private Long eventId;
+
+    @Column(nullable = false)
+    private Long views;
+
+    @Column(name = "updated_on", nullable = false)
+    private LocalDateTime updatedOn;
+}
@@ -0,0 +1,7 @@
+package ru.practicum.entities.event.model.dto;
+
+import java.util.List;
+
+// Страница публичного поиска; nextCursor == null, если страница последняя
+public record EventPage(List<EventShortDto> events, String nextCursor) {
+}
@@ -0,0 +1,40 @@
+package ru.practicum.entities.event.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.entities.category.model.dto.CategoryDto;
+import ru.practicum.entities.user.model.dto.UserShortDto;
+import ru.practicum.utils.DateTimeConstants;
+
+import java.time.LocalDateTime;
+
+// Краткое представление события для списков: без описания, места проведения и полей модерации
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventShortDto {
+    private Long id;
+
+    private String annotation;
+
+    private CategoryDto category;
+
+    @JsonFormat(pattern = DateTimeConstants.DATE_TIME_FORMAT)
+    private LocalDateTime eventDate;
+
+    private UserShortDto initiator;
+
+    private Boolean paid;
+
+    private String title;
+
+    private Long confirmedRequests;
+
+    private Long views;
+
+    private Long commentsCount;
+}
@@ -31,4 +31,7 @@ public class PublicEventSearch {
     private Integer from;
 
     private Integer size;
+
+    // Курсор из заголовка X-Next-Cursor предыдущей страницы; при наличии курсора from не используется
+    private String after;
 }
\ No newline at end of file
@@ -2,5 +2,9 @@ package ru.practicum.entities.event.model.enums;
 
 public enum EventSearchOrder {
     EVENT_DATE,
-    VIEWS
+    VIEWS,
+    // По количеству комментариев, от большего к меньшему
+    COMMENTS,
+    // По релевантности текстовому запросу text; без text - как EVENT_DATE
+    RELEVANCE
 }
@@ -3,12 +3,16 @@ package ru.practicum.entities.event.model.mapper;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import ru.practicum.entities.category.model.Category;
+import ru.practicum.entities.category.model.dto.CategoryDto;
 import ru.practicum.entities.category.model.mapper.CategoryMapper;
 import ru.practicum.entities.event.model.Event;
+import ru.practicum.entities.event.model.EventShortProjection;
 import ru.practicum.entities.event.model.Location;
 import ru.practicum.entities.event.model.dto.EventDto;
+import ru.practicum.entities.event.model.dto.EventShortDto;
 import ru.practicum.entities.event.model.enums.EventState;
 import ru.practicum.entities.user.model.User;
+import ru.practicum.entities.user.model.dto.UserShortDto;
 import ru.practicum.entities.user.model.mapper.UserMapper;
 
 import java.time.LocalDateTime;
@@ -33,6 +37,37 @@ public class EventMapper {
                 .state(event.getState())
                 .title(event.getTitle())
                 .views(0L)
+                .commentsCount(event.getCommentsCount())
+                .build();
+    }
+
+    public static EventShortDto toEventShortDto(Event event) {
+        return EventShortDto.builder()
+                .id(event.getId())
+                .annotation(event.getAnnotation())
+                .category(CategoryMapper.categoryToDto(event.getCategory()))
+                .eventDate(event.getEventDate())
+                .initiator(UserMapper.toUserShortDto(event.getInitiator()))
+                .paid(event.getPaid())
+                .title(event.getTitle())
+                .confirmedRequests(event.getConfirmedRequests())
+                .views(0L)
+                .commentsCount(event.getCommentsCount())
+                .build();
+    }
+
+    public static EventShortDto toEventShortDto(EventShortProjection event) {
+        return EventShortDto.builder()
+                .id(event.id())
+                .annotation(event.annotation())
+                .category(new CategoryDto(event.categoryId(), event.categoryName()))
+                .eventDate(event.eventDate())
+                .initiator(new UserShortDto(event.initiatorId(), event.initiatorName()))
+                .paid(event.paid())
+                .title(event.title())
+                .confirmedRequests(event.confirmedRequests())
+                .views(0L)
+                .commentsCount(event.commentsCount())
                 .build();
     }
 
@@ -0,0 +1,61 @@
+package ru.practicum.entities.event.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.centralRepository.EventRepository;
+
+import java.util.List;
+
+// Периодически сверяет events.comments_count с таблицей comments и исправляет расхождения.
+// Каждая пачка событий блокируется и пересчитывается отдельной короткой транзакцией
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class CommentsCountReconciler {
+    private final EventRepository eventRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${comments-count.reconcile.batch-size:1000}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${comments-count.reconcile.interval-ms:600000}",
+            initialDelayString = "${comments-count.reconcile.initial-delay-ms:60000}")
+    public void reconcile() {
+        long afterId = 0;
+        int fixed = 0;
+        int failed = 0;
+        try {
+            List<Long> ids = eventRepository.findIdsAfter(afterId, Pageable.ofSize(batchSize));
+            while (!ids.isEmpty()) {
+                List<Long> batch = ids;
+                try {
+                    Integer updated = transactionTemplate.execute(status -> {
+                        eventRepository.lockByIdIn(batch);
+                        return eventRepository.reconcileCommentsCount(batch);
+                    });
+                    fixed += updated == null ? 0 : updated;
+                } catch (RuntimeException e) {
+                    // Ошибка одной пачки не останавливает сверку остальных
+                    failed++;
+                    log.warn("Не удалось сверить количество комментариев событий с id {}..{}: {}",
+                            batch.getFirst(), batch.getLast(), e.getMessage());
+                }
+                afterId = ids.getLast();
+                ids = eventRepository.findIdsAfter(afterId, Pageable.ofSize(batchSize));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Сверка количества комментариев прервана: {}", e.getMessage());
+        }
+        if (fixed > 0) {
+            log.warn("Исправлено количество комментариев у {} событий", fixed);
+        }
+        if (failed > 0) {
+            log.warn("Сверка количества комментариев пропустила пачек: {}", failed);
+        }
+    }
+}
@@ -1,18 +1,23 @@
 package ru.practicum.entities.event.service;
 
+import io.micrometer.observation.annotation.Observed;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Service;
 import ru.practicum.centralRepository.CategoryRepository;
-import ru.practicum.centralRepository.CommentRepository;
 import ru.practicum.centralRepository.EventRepository;
 import ru.practicum.centralRepository.UserRepository;
-import ru.practicum.client.StatClient;
-import ru.practicum.dto.StatsDto;
+import ru.practicum.config.CacheConfig;
+import ru.practicum.config.FanOut;
+import ru.practicum.config.MetricsConfig;
 import ru.practicum.entities.category.model.Category;
 import ru.practicum.entities.event.model.Event;
+import ru.practicum.entities.event.model.EventCursor;
+import ru.practicum.entities.event.model.EventShortProjection;
 import ru.practicum.entities.event.model.dto.*;
 import ru.practicum.entities.event.model.enums.EventAdminStateAction;
+import ru.practicum.entities.event.model.enums.EventSearchOrder;
 import ru.practicum.entities.event.model.enums.EventState;
 import ru.practicum.entities.event.model.enums.EventUserStateAction;
 import ru.practicum.entities.event.model.mapper.EventMapper;
@@ -20,27 +25,27 @@ import ru.practicum.entities.user.model.User;
 import ru.practicum.exception.ConditionsNotMetException;
 import ru.practicum.exception.DateValidationException;
 import ru.practicum.exception.NotFoundException;
-import ru.practicum.utils.DateTimeConstants;
+import ru.practicum.stats.EventViewsCache;
+import ru.practicum.stats.ViewCounts;
 
 import java.time.LocalDateTime;
-import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
 
 @Service
+@Observed(name = MetricsConfig.SERVICE_OBSERVATION)
 @RequiredArgsConstructor
 public class EventService {
     private final EventRepository eventRepository;
     private final CategoryRepository categoryRepository;
     private final UserRepository userRepository;
-    private final StatClient statsClient;
-    private final CommentRepository commentRepository;
+    private final EventViewsCache eventViewsCache;
+    private final FanOut fanOut;
 
-    public List<EventDto> findByUserId(Long userId, Integer from, Integer size) {
-        return eventRepository.findAllByInitiatorIdOrderByEventDateDesc(userId, from, size)
+    public List<EventShortDto> findByUserId(Long userId, Integer from, Integer size) {
+        return eventRepository.findShortByInitiatorId(userId, from, size)
                 .stream()
-                .map(EventMapper::toEventDto)
+                .map(EventMapper::toEventShortDto)
                 .toList();
     }
 
@@ -55,59 +60,41 @@ public class EventService {
         return EventMapper.toEventDto(event);
     }
 
-    public List<EventDto> searchCommon(PublicEventSearch search) {
+    public EventPage searchCommon(PublicEventSearch search) {
         if (search.getRangeEnd() != null && search.getRangeStart() != null &&
                 search.getRangeEnd().isBefore(search.getRangeStart())) {
             throw new DateValidationException("Дата начала не должна быть позже даты окончания");
         }
 
-        List<Event> events = eventRepository.findCommonEventsByFilters(search);
-
-        Map<Long, Long> commentsCountMap;
-        if (!events.isEmpty()) {
-            List<Long> eventIds = events.stream().map(Event::getId).toList();
-            // Вызываем новый метод репозитория
-            List<Object[]> results = commentRepository.countByEventIdsGrouped(eventIds);
-            // Преобразуем List<Object[]> в Map<Long, Long>
-            commentsCountMap = results.stream()
-                    .collect(Collectors.toMap(
-                            result -> (Long) result[0], // eventId
-                            result -> (Long) result[1]  // count
-                    ));
-        } else {
-            commentsCountMap = Collections.emptyMap(); // Пустая карта, если событий нет
-        }
+        List<EventShortProjection> events = eventRepository.findCommonEventsByFilters(search);
 
-        List<String> uris = events.stream()
-                .map(event -> "/events/" + event.getId())
-                .toList();
-
-        LocalDateTime now = LocalDateTime.now();
-        List<StatsDto> stats = statsClient.getStats(
-                DateTimeConstants.toString(LocalDateTime.of(1900, 1, 1, 0, 0)),
-                DateTimeConstants.toString(now.plusMinutes(2)),
-                uris,
-                true
-        );
+        ViewCounts views = eventViewsCache.getViews(events.stream().map(EventShortProjection::id).toList());
 
-        Map<String, Long> statsMap = stats.stream()
-                .collect(Collectors.toMap(
-                        StatsDto::getUri,
-                        StatsDto::getHits
-                ));
-
-        return events.stream()
+        List<EventShortDto> dtos = events.stream()
                 .map(event -> {
-                    EventDto dto = EventMapper.toEventDto(event);
+                    EventShortDto dto = EventMapper.toEventShortDto(event);
                     // Установка просмотров
-                    Long views = statsMap.getOrDefault("/events/" + event.getId(), 0L);
-                    dto.setViews(views);
-                    // Установка количества комментариев
-                    Long commentsCount = commentsCountMap.getOrDefault(event.getId(), 0L);
-                    dto.setCommentsCount(commentsCount);
+                    dto.setViews(views.get(event.id()));
                     return dto;
                 })
                 .toList();
+        return new EventPage(dtos, nextCursor(search, events));
+    }
+
+    // Курсор строится по тому же ключу, по которому сортировала база; для неполной страницы его нет
+    private String nextCursor(PublicEventSearch search, List<EventShortProjection> events) {
+        if (search.getSize() == null || events.size() < search.getSize()
+                || search.getSort() == EventSearchOrder.RELEVANCE && search.getText() != null) {
+            return null;
+        }
+        EventShortProjection last = events.getLast();
+        if (search.getSort() == EventSearchOrder.VIEWS) {
+            return EventCursor.ofViews(last.materializedViews(), last.id()).encode();
+        }
+        if (search.getSort() == EventSearchOrder.COMMENTS) {
+            return EventCursor.ofCommentsCount(last.commentsCount(), last.id()).encode();
+        }
+        return EventCursor.ofEventDate(last.eventDate(), last.id()).encode();
     }
 
     @Transactional
@@ -118,16 +105,27 @@ public class EventService {
                 .toList();
     }
 
+    // Событие читается из базы параллельно с запросом просмотров: просмотры зависят только от id.
+    // Запрос к stats-server остаётся в потоке запроса - он сам ограничен по времени и отмечает деградацию в ответе.
+    // Поток запроса не держит соединение (open-in-view выключен), поэтому чтение в fanOut занимает одно соединение
     public EventDto findById(Long eventId) {
-        Event event = findEventById(eventId);
-
-        if (event.getState() != EventState.PUBLISHED) {
-            throw new NotFoundException("Событие с id=" + eventId + " не найдено");
+        long deadline = fanOut.deadline();
+        CompletableFuture<Event> eventFuture = fanOut.submit(() -> findEventById(eventId));
+        long views = eventViewsCache.getViews(eventId);
+        Event event;
+        try {
+            event = fanOut.join(eventFuture, deadline);
+            if (event.getState() != EventState.PUBLISHED) {
+                throw new NotFoundException("Событие с id=" + eventId + " не найдено");
+            }
+        } catch (RuntimeException e) {
+            // Просмотры несуществующего или неопубликованного события не занимают место в кэше
+            eventViewsCache.evict(eventId);
+            throw e;
         }
 
         EventDto dto = EventMapper.toEventDto(event);
 
-        Long views = getViews(eventId);
         dto.setViews(views);
 
         return dto;
@@ -157,7 +155,9 @@ public class EventService {
         );
     }
 
+    // Краткие данные события входят в закреплённые подборки
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PINNED_COMPILATIONS, allEntries = true)
     public EventDto updateByAdmin(long eventId, UpdateAdminEventDto eventDto) {
         Event event = findEventById(eventId);
 
@@ -191,6 +191,7 @@ public class EventService {
     }
 
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PINNED_COMPILATIONS, allEntries = true)
     public EventDto updateByUser(Long userId, Long eventId, UpdateEventDto eventDto) {
         userRepository.findById(userId); // Проверка существования пользователя
 
@@ -227,15 +228,6 @@ public class EventService {
         return EventMapper.toEventDto(eventRepository.save(event));
     }
 
-    private Long getViews(Long id) {
-        List<StatsDto> result = statsClient.getStats("1900-01-01 00:00:00",
-                DateTimeConstants.toString(LocalDateTime.now().plusMinutes(2)),
-                List.of("/events/" + id),
-                true);
-
-        return result.isEmpty() ? 0L : result.get(0).getHits();
-    }
-
     private void updateEventFields(Event event, UpdateEventBaseDto eventDto, LocalDateTime eventDate) {
         if (eventDto.getAnnotation() != null) {
             event.setAnnotation(eventDto.getAnnotation());
@@ -0,0 +1,145 @@
+package ru.practicum.entities.event.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.centralRepository.EventRepository;
+import ru.practicum.centralRepository.EventViewsRepository;
+import ru.practicum.client.StatClient;
+import ru.practicum.dto.StatsDto;
+import ru.practicum.entities.event.model.EventViews;
+import ru.practicum.entities.event.model.enums.EventState;
+import ru.practicum.stats.EventViewsCache;
+import ru.practicum.utils.DateTimeConstants;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Периодически переносит просмотры опубликованных событий из stats-server в event_views.
+// Первый проход после старта пересчитывает все опубликованные события, следующие - только те,
+// у которых появились хиты после предыдущего прохода (watermark). Список таких событий берётся
+// неуникальной статистикой по свёрткам stats-server, без чтения сырых хитов.
+// Ошибка stats-server прерывает проход, watermark не сдвигается и сохранённые значения остаются прежними
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class EventViewsSyncService {
+    private static final String EVENT_URI_PREFIX = "/events/";
+
+    private final EventRepository eventRepository;
+    private final EventViewsRepository eventViewsRepository;
+    private final StatClient statClient;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${event-views.sync.batch-size:500}")
+    private int batchSize;
+
+    // Запас на хиты, которые буфер main-service доставил позже их времени
+    @Value("${event-views.sync.overlap-ms:300000}")
+    private long overlapMs;
+
+    @Value("${stats-server.views.approximate:false}")
+    private boolean approximate;
+
+    // Начало последнего успешного прохода; null - полный пересчёт
+    private LocalDateTime watermark;
+
+    @Scheduled(fixedDelayString = "${event-views.sync.interval-ms:60000}",
+            initialDelayString = "${event-views.sync.initial-delay-ms:10000}")
+    public void sync() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        try {
+            int synced = watermark == null ? syncAll() : syncActive(watermark.minus(Duration.ofMillis(overlapMs)));
+            watermark = startedAt;
+            log.debug("Синхронизированы просмотры {} событий", synced);
+        } catch (RuntimeException e) {
+            log.warn("Синхронизация просмотров прервана: {}", e.getMessage());
+        }
+    }
+
+    private int syncAll() {
+        long afterId = 0;
+        int synced = 0;
+        List<Long> ids = eventRepository.findIdsByStateAfter(EventState.PUBLISHED, afterId, Pageable.ofSize(batchSize));
+        while (!ids.isEmpty()) {
+            syncBatch(ids);
+            synced += ids.size();
+            afterId = ids.getLast();
+            ids = eventRepository.findIdsByStateAfter(EventState.PUBLISHED, afterId, Pageable.ofSize(batchSize));
+        }
+        return synced;
+    }
+
+    private int syncActive(LocalDateTime since) {
+        List<Long> active = statClient.getStats(DateTimeConstants.toString(since),
+                        DateTimeConstants.toString(LocalDateTime.now().plusMinutes(2)),
+                        null,
+                        false,
+                        false)
+                .stream()
+                .map(stat -> eventId(stat.getUri()))
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted()
+                .toList();
+        int synced = 0;
+        for (int from = 0; from < active.size(); from += batchSize) {
+            List<Long> ids = eventRepository.findIdsByStateAndIdIn(EventState.PUBLISHED,
+                    active.subList(from, Math.min(from + batchSize, active.size())));
+            if (!ids.isEmpty()) {
+                syncBatch(ids);
+                synced += ids.size();
+            }
+        }
+        return synced;
+    }
+
+    private void syncBatch(List<Long> ids) {
+        List<StatsDto> stats = statClient.getStats(EventViewsCache.START,
+                DateTimeConstants.toString(LocalDateTime.now().plusMinutes(2)),
+                ids.stream().map(EventViewsCache::uri).toList(),
+                true,
+                approximate);
+        Map<String, Long> hits = new HashMap<>();
+        for (StatsDto stat : stats) {
+            hits.put(stat.getUri(), stat.getHits());
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<Long, EventViews> existing = eventViewsRepository.findAllById(ids).stream()
+                    .collect(Collectors.toMap(EventViews::getEventId, Function.identity()));
+            List<EventViews> rows = ids.stream()
+                    .map(id -> {
+                        EventViews row = existing.getOrDefault(id, EventViews.builder().eventId(id).build());
+                        row.setViews(hits.getOrDefault(EventViewsCache.uri(id), 0L));
+                        row.setUpdatedOn(now);
+                        return row;
+                    })
+                    .toList();
+            eventViewsRepository.saveAll(rows);
+        });
+    }
+
+    // id события из uri вида /events/{id}; для остальных uri - null
+    private static Long eventId(String uri) {
+        if (uri == null || !uri.startsWith(EVENT_URI_PREFIX)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(uri.substring(EVENT_URI_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
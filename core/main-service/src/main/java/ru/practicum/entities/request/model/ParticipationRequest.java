@@ -4,6 +4,7 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -33,10 +34,11 @@ public class ParticipationRequest {
     @Column(nullable = false)
     private LocalDateTime created;
 
-    @ManyToOne
+    // Маппер использует только id, поэтому событие и пользователь не загружаются
+    @ManyToOne(fetch = FetchType.LAZY)
     private Event event;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private User requester;
 
     @Enumerated(EnumType.STRING)
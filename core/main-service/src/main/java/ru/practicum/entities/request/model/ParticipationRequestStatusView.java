@@ -0,0 +1,5 @@
+package ru.practicum.entities.request.model;
+
+// id и статус заявки без загрузки сущности
+public record ParticipationRequestStatusView(Long id, ParticipationRequestStatus status) {
+}
@@ -1,15 +1,19 @@
 package ru.practicum.entities.request.service;
 
+import io.micrometer.observation.annotation.Observed;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import ru.practicum.centralRepository.EventRepository;
 import ru.practicum.centralRepository.ParticipationRequestRepository;
 import ru.practicum.centralRepository.UserRepository;
+import ru.practicum.config.MetricsConfig;
 import ru.practicum.entities.event.model.Event;
 import ru.practicum.entities.event.model.enums.EventState;
 import ru.practicum.entities.request.model.ParticipationRequest;
 import ru.practicum.entities.request.model.ParticipationRequestStatus;
+import ru.practicum.entities.request.model.ParticipationRequestStatusView;
 import ru.practicum.entities.request.model.dto.EventRequestStatusUpdateRequest;
 import ru.practicum.entities.request.model.dto.EventRequestStatusUpdateResult;
 import ru.practicum.entities.request.model.dto.ParticipationRequestDto;
@@ -19,12 +23,13 @@ import ru.practicum.exception.ConditionsNotMetException;
 import ru.practicum.exception.NotFoundException;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
+@Observed(name = MetricsConfig.SERVICE_OBSERVATION)
 @RequiredArgsConstructor
 public class ParticipationRequestService {
     private final ParticipationRequestRepository participationRequestRepository;
@@ -32,14 +37,14 @@ public class ParticipationRequestService {
     private final EventRepository eventRepository;
 
     public List<ParticipationRequestDto> getAllByUser(Long userId) {
-        userRepository.findById(userId).orElseThrow(() -> new NotFoundException("Пользователь с id=" + userId + " не найден"));
+        checkUserExists(userId);
         return participationRequestRepository.findAllByRequesterId(userId)
                 .stream()
                 .map(ParticipationRequestMapper::toParticipationRequestDto).toList();
     }
 
     public List<ParticipationRequestDto> getAllByEventAndInitiator(Long userId, Long eventId) {
-        userRepository.findById(userId).orElseThrow(() -> new NotFoundException("Пользователь с id=" + userId + " не найден"));
+        checkUserExists(userId);
         Event event = eventRepository.findById(eventId).orElseThrow(() -> new NotFoundException("Событие с id=" + eventId + " не найдено"));
         if (!event.getInitiator().getId().equals(userId)) {
             throw new ConditionsNotMetException("Заявки на участие в событии может просмотреть только создатель события");
@@ -61,10 +66,7 @@ public class ParticipationRequestService {
         if (event.getState() != EventState.PUBLISHED) {
             throw new ConditionsNotMetException("Нельзя заявить участие в неопубликованном событии");
         }
-        if (!participationRequestRepository.findAllByEventIdAndRequesterId(eventId, userId).isEmpty()) {
-            throw new ConditionsNotMetException("Нельзя отправить дублирующую заявку на участие в событии");
-        }
-        if (event.getParticipantLimit() != 0 && Objects.equals(event.getConfirmedRequests(), event.getParticipantLimit())) {
+        if (event.getParticipantLimit() != 0 && event.getConfirmedRequests() >= event.getParticipantLimit()) {
             throw new ConditionsNotMetException("Достигнут лимит заявок на участие в событии");
         }
 
@@ -74,29 +76,31 @@ public class ParticipationRequestService {
                 .status(event.getParticipantLimit() > 0 && event.getRequestModeration() ? ParticipationRequestStatus.PENDING : ParticipationRequestStatus.CONFIRMED)
                 .created(LocalDateTime.now())
                 .build();
-        if (!event.getRequestModeration()) {
-            event.setConfirmedRequests(event.getConfirmedRequests() + 1);
-            eventRepository.save(event);
+        // Проверка выше - быстрый отказ по прочитанному значению, окончательно место занимает условный UPDATE
+        if (participationRequest.getStatus() == ParticipationRequestStatus.CONFIRMED
+                && eventRepository.incrementConfirmedRequests(eventId, 1) == 0) {
+            throw new ConditionsNotMetException("Достигнут лимит заявок на участие в событии");
         }
 
-        return ParticipationRequestMapper.toParticipationRequestDto(participationRequestRepository.save(participationRequest));
+        // Дубликат отсекает уникальное ограничение (requester_id, event_id), резерв места откатывается вместе с транзакцией
+        try {
+            return ParticipationRequestMapper.toParticipationRequestDto(participationRequestRepository.saveAndFlush(participationRequest));
+        } catch (DataIntegrityViolationException e) {
+            throw new ConditionsNotMetException("Нельзя отправить дублирующую заявку на участие в событии");
+        }
     }
 
     @Transactional
     public ParticipationRequestDto cancel(Long userId, Long requestId) {
-        userRepository.findById(userId).orElseThrow(() -> new NotFoundException("Пользователь с id=" + userId + " не найден"));
+        checkUserExists(userId);
         ParticipationRequest participationRequest = participationRequestRepository.findById(requestId)
                 .orElseThrow(() -> new NotFoundException("Заявка с id=" + requestId + " не найдена"));
         if (!participationRequest.getRequester().getId().equals(userId)) {
             throw new ConditionsNotMetException("Заявку на участие в событии можно отменить только пользователем, который её отправил");
         }
 
-        Event event = eventRepository.findById(participationRequest.getEvent().getId())
-                .orElseThrow(() -> new NotFoundException("Событие с id=" + participationRequest.getEvent().getId() + " не найдено"));
-
         if (participationRequest.getStatus() == ParticipationRequestStatus.CONFIRMED) {
-            event.setConfirmedRequests(event.getConfirmedRequests() - 1);
-            eventRepository.save(event);
+            eventRepository.decrementConfirmedRequests(participationRequest.getEvent().getId(), 1);
         }
 
         participationRequest.setStatus(ParticipationRequestStatus.CANCELED);
@@ -107,7 +111,7 @@ public class ParticipationRequestService {
 
     @Transactional
     public EventRequestStatusUpdateResult updateStatus(Long userId, Long eventId, EventRequestStatusUpdateRequest requestDto) {
-        userRepository.findById(userId).orElseThrow(() -> new NotFoundException("Пользователь с id=" + userId + " не найден"));
+        checkUserExists(userId);
         Event event = eventRepository.findById(eventId).orElseThrow(() -> new NotFoundException("Событие с id=" + eventId + " не найдено"));
 
         validateEventOwnership(userId, event);
@@ -115,24 +119,24 @@ public class ParticipationRequestService {
             throw new ConditionsNotMetException("Нельзя обновить статус заявок на участие в событии с отключенной модерацией заявок");
         }
 
-        List<ParticipationRequest> participationRequests = participationRequestRepository.findAllByEventId(eventId);
-        List<Long> absentRequestIds = new ArrayList<>();
-        validateRequestIds(participationRequests, requestDto.getRequestIds(), absentRequestIds);
+        Set<Long> requestIds = new HashSet<>(requestDto.getRequestIds());
+        if (!requestIds.isEmpty()) {
+            validateRequests(eventId, requestIds);
 
-        List<ParticipationRequest> participationRequestsToUpdate = participationRequests.stream()
-                .filter(participationRequest -> requestDto.getRequestIds().contains(participationRequest.getId()))
-                .toList();
+            if (requestDto.getStatus() == ParticipationRequestStatus.CONFIRMED) {
+                confirmRequests(event, requestIds);
+            } else if (requestDto.getStatus() == ParticipationRequestStatus.REJECTED) {
+                rejectRequests(eventId, requestIds);
+            }
+        }
 
-        validatePendingStatuses(participationRequestsToUpdate);
+        return buildResult(eventId);
+    }
 
-        if (requestDto.getStatus() == ParticipationRequestStatus.CONFIRMED) {
-            confirmRequests(event, participationRequestsToUpdate, participationRequests);
-        } else if (requestDto.getStatus() == ParticipationRequestStatus.REJECTED) {
-            rejectRequests(participationRequestsToUpdate, event);
+    private void checkUserExists(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new NotFoundException("Пользователь с id=" + userId + " не найден");
         }
-
-        participationRequests = participationRequestRepository.findAllByEventId(eventId);
-        return buildResult(participationRequests);
     }
 
     // Проверка прав доступа
@@ -142,79 +146,59 @@ public class ParticipationRequestService {
         }
     }
 
-    // Проверка наличия заявок
-    private void validateRequestIds(List<ParticipationRequest> participationRequests, List<Long> requestIds, List<Long> absentRequestIds) {
-        requestIds.forEach(id -> {
-            if (!participationRequests.stream().map(ParticipationRequest::getId).toList().contains(id)) {
-                absentRequestIds.add(id);
-            }
-        });
+    // Проверка наличия заявок и их статусов: читаются только перечисленные заявки
+    private void validateRequests(Long eventId, Set<Long> requestIds) {
+        List<ParticipationRequestStatusView> found = participationRequestRepository.findStatusesByEventIdAndIdIn(eventId, requestIds);
 
+        Set<Long> absentRequestIds = new HashSet<>(requestIds);
+        found.forEach(request -> absentRequestIds.remove(request.id()));
         if (!absentRequestIds.isEmpty()) {
             throw new NotFoundException("Заявки на участие с id=" + absentRequestIds + " не найдены");
         }
-    }
-
-    // Проверка статусов заявок
-    private void validatePendingStatuses(List<ParticipationRequest> participationRequestsToUpdate) {
-        List<Long> notPendingRequests = participationRequestsToUpdate.stream()
-                .filter(participationRequest -> participationRequest.getStatus() != ParticipationRequestStatus.PENDING)
-                .map(ParticipationRequest::getId)
-                .toList();
 
-        if (!notPendingRequests.isEmpty()) {
+        boolean notPending = found.stream().anyMatch(request -> request.status() != ParticipationRequestStatus.PENDING);
+        if (notPending) {
             throw new ConditionsNotMetException("Заявки на участие в событии не находятся в состоянии ожидания подтверждения");
         }
     }
 
-    // логика подтверждения заявок
-    private void confirmRequests(Event event, List<ParticipationRequest> participationRequestsToUpdate, List<ParticipationRequest> allRequests) {
-        if (event.getConfirmedRequests() + participationRequestsToUpdate.size() > event.getParticipantLimit()) {
+    // логика подтверждения заявок: места резервируются атомарно, статусы меняются одним UPDATE
+    private void confirmRequests(Event event, Set<Long> requestIds) {
+        if (eventRepository.incrementConfirmedRequests(event.getId(), requestIds.size()) == 0) {
             throw new ConditionsNotMetException("Нельзя подтвердить заявки на участие в событии, так как превышен лимит заявок");
         }
 
-        participationRequestsToUpdate.forEach(participationRequest -> participationRequest.setStatus(ParticipationRequestStatus.CONFIRMED));
-        participationRequestRepository.saveAll(allRequests);
+        updatePendingStatuses(event.getId(), requestIds, ParticipationRequestStatus.CONFIRMED);
 
-        event.setConfirmedRequests(event.getConfirmedRequests() + participationRequestsToUpdate.size());
-        eventRepository.save(event);
-
-        if (Objects.equals(event.getConfirmedRequests(), event.getParticipantLimit())) {
-            List<ParticipationRequest> requestsToReject = allRequests.stream()
-                    .filter(participationRequest -> !participationRequestsToUpdate.contains(participationRequest))
-                    .toList();
-
-            requestsToReject.forEach(participationRequest -> participationRequest.setStatus(ParticipationRequestStatus.REJECTED));
-            participationRequestRepository.saveAll(requestsToReject);
+        // Лимит исчерпан - остальные ожидающие заявки отклоняются одним запросом
+        if (eventRepository.findConfirmedRequests(event.getId()) >= event.getParticipantLimit()) {
+            participationRequestRepository.rejectAllPending(event.getId());
         }
     }
 
     // логика отклонения заявок
-    private void rejectRequests(List<ParticipationRequest> participationRequestsToUpdate, Event event) {
-        long confirmedRequestsToReject = participationRequestsToUpdate.stream()
-                .filter(pr -> pr.getStatus() == ParticipationRequestStatus.CONFIRMED)
-                .count();
-
-        participationRequestsToUpdate.forEach(participationRequest ->
-                participationRequest.setStatus(ParticipationRequestStatus.REJECTED));
-        participationRequestRepository.saveAll(participationRequestsToUpdate);
+    private void rejectRequests(Long eventId, Set<Long> requestIds) {
+        updatePendingStatuses(eventId, requestIds, ParticipationRequestStatus.REJECTED);
+    }
 
-        if (confirmedRequestsToReject > 0) {
-            event.setConfirmedRequests(event.getConfirmedRequests() - confirmedRequestsToReject);
-            eventRepository.save(event);
+    // Если параллельный запрос уже изменил часть заявок, транзакция откатывается вместе с резервом мест
+    private void updatePendingStatuses(Long eventId, Set<Long> requestIds, ParticipationRequestStatus status) {
+        int updated = participationRequestRepository.updatePendingStatuses(eventId, requestIds, status);
+        if (updated != requestIds.size()) {
+            throw new ConditionsNotMetException("Заявки на участие в событии не находятся в состоянии ожидания подтверждения");
         }
     }
 
     // логика формирования результата
-    private EventRequestStatusUpdateResult buildResult(List<ParticipationRequest> participationRequests) {
+    private EventRequestStatusUpdateResult buildResult(Long eventId) {
+        List<ParticipationRequestDto> requests = participationRequestRepository.findDtosByEventIdAndStatusIn(eventId,
+                List.of(ParticipationRequestStatus.CONFIRMED, ParticipationRequestStatus.REJECTED));
         return EventRequestStatusUpdateResult.builder()
-                .confirmedRequests(participationRequests.stream()
-                        .filter(participationRequest -> participationRequest.getStatus() == ParticipationRequestStatus.CONFIRMED)
-                        .map(ParticipationRequestMapper::toParticipationRequestDto)
+                .confirmedRequests(requests.stream()
+                        .filter(request -> request.getStatus() == ParticipationRequestStatus.CONFIRMED)
                         .collect(Collectors.toSet()))
-                .rejectedRequests(participationRequests.stream()
-                        .filter(participationRequest -> participationRequest.getStatus() == ParticipationRequestStatus.REJECTED)
-                        .map(ParticipationRequestMapper::toParticipationRequestDto)
+                .rejectedRequests(requests.stream()
+                        .filter(request -> request.getStatus() == ParticipationRequestStatus.REJECTED)
                         .collect(Collectors.toSet()))
                 .build();
     }
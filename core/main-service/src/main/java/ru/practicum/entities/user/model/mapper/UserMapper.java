@@ -4,6 +4,7 @@ import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import ru.practicum.entities.user.model.User;
 import ru.practicum.entities.user.model.dto.UserDto;
+import ru.practicum.entities.user.model.dto.UserShortDto;
 
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class UserMapper {
@@ -22,4 +23,11 @@ public class UserMapper {
                 .name(user.getName())
                 .build();
     }
+
+    public static UserShortDto toUserShortDto(User user) {
+        return UserShortDto.builder()
+                .id(user.getId())
+                .name(user.getName())
+                .build();
+    }
 }
\ No newline at end of file
@@ -1,18 +1,19 @@
 package ru.practicum.entities.user.service;
 
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import ru.practicum.centralRepository.UserRepository;
-import ru.practicum.entities.user.model.User;
+import ru.practicum.config.MetricsConfig;
 import ru.practicum.entities.user.model.dto.UserDto;
 import ru.practicum.entities.user.model.mapper.UserMapper;
 import ru.practicum.exception.ConditionsNotMetException;
 import ru.practicum.exception.NotFoundException;
 
 import java.util.List;
-import java.util.Optional;
 
 @Service
+@Observed(name = MetricsConfig.SERVICE_OBSERVATION)
 @RequiredArgsConstructor
 public class UserService {
     private final UserRepository userRepository;
@@ -24,8 +25,7 @@ public class UserService {
     }
 
     public UserDto create(UserDto user) {
-        Optional<User> userByEmail = userRepository.findByEmail(user.getEmail());
-        if (userByEmail.isPresent()) {
+        if (userRepository.existsByEmail(user.getEmail())) {
             throw new ConditionsNotMetException("Пользователь с таким email уже существует");
         }
         return UserMapper.toUserDto(
@@ -34,9 +34,9 @@ public class UserService {
     }
 
     public void delete(Long userId) {
-        userRepository.findById(userId).orElseThrow(() ->
-                new NotFoundException("Пользователь с id=" + userId + " не найден")
-        );
+        if (!userRepository.existsById(userId)) {
+            throw new NotFoundException("Пользователь с id=" + userId + " не найден");
+        }
         userRepository.deleteById(userId);
     }
 }
\ No newline at end of file
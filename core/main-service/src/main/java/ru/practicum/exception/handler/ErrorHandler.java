@@ -105,6 +105,18 @@ public class ErrorHandler {
                 .build();
     }
 
+    @ExceptionHandler(ValidationException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ApiError handleValidationException(final ValidationException e) {
+        return ApiError.builder()
+                .errors(Arrays.stream(e.getStackTrace()).map(StackTraceElement::toString).toList())
+                .status(HttpStatus.BAD_REQUEST.toString())
+                .reason("Некорректный запрос.")
+                .message(e.getMessage())
+                .timestamp(DateTimeConstants.toString(LocalDateTime.now()))
+                .build();
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ApiError handleGeneric(final Throwable e) {
@@ -146,4 +158,16 @@ public class ErrorHandler {
                 .timestamp(DateTimeConstants.toString(LocalDateTime.now()))
                 .build();
     }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ApiError handleServiceUnavailableException(final ServiceUnavailableException e) {
+        return ApiError.builder()
+                .errors(Arrays.stream(e.getStackTrace()).map(StackTraceElement::toString).toList())
+                .status(HttpStatus.SERVICE_UNAVAILABLE.toString())
+                .reason("Сервис временно недоступен.")
+                .message(e.getMessage())
+                .timestamp(DateTimeConstants.toString(LocalDateTime.now()))
+                .build();
+    }
 }
\ No newline at end of file
@@ -1,14 +1,16 @@
 package ru.practicum.exception.handler;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
-import ru.practicum.client.StatClient;
+import ru.practicum.client.HitBuffer;
+import ru.practicum.config.MetricsConfig;
 import ru.practicum.dto.EndpointHitDto;
 import ru.practicum.utils.DateTimeConstants;
 
@@ -22,23 +24,29 @@ public class GlobalInterceptor implements HandlerInterceptor {
     @Value("${spring.application.name}")
     private String appName;
 
-    private final StatClient statsClient;
+    private final HitBuffer hitBuffer;
+    private final MeterRegistry meterRegistry;
 
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Timer.Sample sample = Timer.start(meterRegistry);
         try {
-            ResponseEntity<Object> statsResponse = statsClient.save(EndpointHitDto.builder()
+            // Хит уходит в stats-server в фоне пачкой, запрос не ждёт ответа
+            hitBuffer.add(EndpointHitDto.builder()
                     .app(appName)
                     .uri(request.getRequestURI())
                     .ip(request.getRemoteAddr())
                     .timestamp(DateTimeConstants.toString(LocalDateTime.now()))
                     .build());
-            if (!statsResponse.getStatusCode().is2xxSuccessful()) {
-                log.error("Ошибка при сохранении статистики: {}", statsResponse.getBody());
-            }
         } catch (RuntimeException e) {
             log.error("Исключительная ситуация при сохранении статистики: {}", e.getMessage());
+        } finally {
+            sample.stop(Timer.builder("ewm.interceptor")
+                    .description("Время обработки запроса в интерсепторе")
+                    .tag("interceptor", "GlobalInterceptor")
+                    .tag(MetricsConfig.ENDPOINT_TAG, MetricsConfig.currentEndpoint())
+                    .register(meterRegistry));
         }
         return true;
     }
-}
\ No newline at end of file
+}
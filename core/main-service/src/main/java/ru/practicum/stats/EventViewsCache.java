@@ -0,0 +1,100 @@
+package ru.practicum.stats;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.dto.StatsDto;
+import ru.practicum.utils.DateTimeConstants;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Кэш просмотров событий по uri: в пределах TTL горячие события не обращаются к stats-server,
+// недостающие ключи пачки загружаются одним запросом getStats. Запасные значения (stats-server
+// не ответил) в кэш не попадают, иначе заголовок X-Stats-Degraded пропал бы на весь TTL
+@Component
+public class EventViewsCache {
+    public static final String START = "1900-01-01 00:00:00";
+
+    private final ResilientStatsClient statsClient;
+    private final Cache<String, Long> cache;
+    private final boolean approximate;
+
+    public EventViewsCache(ResilientStatsClient statsClient,
+                           MeterRegistry meterRegistry,
+                           @Value("${stats-server.views.cache.ttl-ms:10000}") long ttlMs,
+                           @Value("${stats-server.views.cache.max-size:10000}") long maxSize,
+                           @Value("${stats-server.views.approximate:false}") boolean approximate) {
+        this.statsClient = statsClient;
+        this.approximate = approximate;
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "eventViews");
+    }
+
+    public long getViews(Long eventId) {
+        return getViews(List.of(eventId)).get(eventId);
+    }
+
+    public ViewCounts getViews(Collection<Long> eventIds) {
+        if (eventIds.isEmpty()) {
+            return new ViewCounts(Map.of(), false);
+        }
+        List<String> uris = eventIds.stream().map(EventViewsCache::uri).distinct().toList();
+        Map<String, Long> found = new HashMap<>(cache.getAllPresent(uris));
+        boolean degraded = false;
+        List<String> missing = uris.stream().filter(uri -> !found.containsKey(uri)).toList();
+        if (!missing.isEmpty()) {
+            StatsResult result = load(missing);
+            Map<String, Long> loaded = toViews(missing, result.stats());
+            if (!result.degraded()) {
+                cache.putAll(loaded);
+            }
+            found.putAll(loaded);
+            degraded = result.degraded();
+        }
+        Map<Long, Long> views = new HashMap<>();
+        for (Long eventId : eventIds) {
+            views.put(eventId, found.getOrDefault(uri(eventId), 0L));
+        }
+        return new ViewCounts(views, degraded);
+    }
+
+    public void evict(Long eventId) {
+        cache.invalidate(uri(eventId));
+    }
+
+    public static String uri(Long eventId) {
+        return "/events/" + eventId;
+    }
+
+    private StatsResult load(List<String> uris) {
+        return statsClient.getStats(START,
+                DateTimeConstants.toString(LocalDateTime.now().plusMinutes(2)),
+                uris,
+                true,
+                approximate);
+    }
+
+    // Для uri без хитов stats-server ничего не возвращает - считаем их 0
+    private static Map<String, Long> toViews(List<String> uris, List<StatsDto> stats) {
+        Map<String, Long> views = new HashMap<>();
+        for (String uri : uris) {
+            views.put(uri, 0L);
+        }
+        for (StatsDto stat : stats) {
+            views.put(stat.getUri(), stat.getHits());
+        }
+        return views;
+    }
+}
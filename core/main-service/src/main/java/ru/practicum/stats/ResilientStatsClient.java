@@ -0,0 +1,201 @@
+package ru.practicum.stats;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadConfig;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedThreadPoolBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedTimeLimiterMetrics;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import ru.practicum.client.StatClient;
+import ru.practicum.config.ExecutorConfig;
+import ru.practicum.config.MetricsConfig;
+import ru.practicum.dto.StatsDto;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Supplier;
+
+// Запросы статистики через circuit breaker, bulkhead и ограничение времени: медленный или недоступный
+// stats-server не задерживает публичные эндпоинты дольше timeout-ms. При отказе отдаются последние
+// известные значения (или 0), а в ответ добавляется заголовок X-Stats-Degraded
+@Component
+@Slf4j
+public class ResilientStatsClient {
+    public static final String DEGRADED_HEADER = "X-Stats-Degraded";
+    private static final String NAME = "stats";
+
+    private final StatClient statClient;
+    private final CircuitBreaker circuitBreaker;
+    private final ThreadPoolBulkhead bulkhead;
+    // В режиме виртуальных потоков вызов идёт в fanOutExecutor, а число одновременных вызовов ограничивает семафор
+    private final Bulkhead virtualBulkhead;
+    private final ExecutorService fanOutExecutor;
+    private final TimeLimiter timeLimiter;
+    private final ScheduledExecutorService timeoutScheduler;
+    private final Cache<String, Long> lastKnown;
+    private final Counter fallbacks;
+    private final MeterRegistry meterRegistry;
+
+    public ResilientStatsClient(StatClient statClient,
+                                MeterRegistry meterRegistry,
+                                @Qualifier(ExecutorConfig.FAN_OUT_EXECUTOR) ExecutorService fanOutExecutor,
+                                @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                                @Value("${stats-client.resilience.timeout-ms:300}") long timeoutMs,
+                                @Value("${stats-client.resilience.max-concurrent-calls:20}") int maxConcurrentCalls,
+                                @Value("${stats-client.resilience.queue-capacity:20}") int queueCapacity,
+                                @Value("${stats-client.resilience.failure-rate-threshold:50}") float failureRateThreshold,
+                                @Value("${stats-client.resilience.sliding-window-size:20}") int slidingWindowSize,
+                                @Value("${stats-client.resilience.open-state-ms:10000}") long openStateMs,
+                                @Value("${stats-client.resilience.last-known-max-size:100000}") long lastKnownMaxSize) {
+        this.statClient = statClient;
+        this.meterRegistry = meterRegistry;
+        this.fanOutExecutor = fanOutExecutor;
+
+        CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallRateThreshold(failureRateThreshold)
+                .slowCallDurationThreshold(Duration.ofMillis(timeoutMs))
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(slidingWindowSize)
+                .waitDurationInOpenState(Duration.ofMillis(openStateMs))
+                .permittedNumberOfCallsInHalfOpenState(3)
+                .build());
+        ThreadPoolBulkheadRegistry bulkheadRegistry = ThreadPoolBulkheadRegistry.of(ThreadPoolBulkheadConfig.custom()
+                .coreThreadPoolSize(maxConcurrentCalls)
+                .maxThreadPoolSize(maxConcurrentCalls)
+                .queueCapacity(queueCapacity)
+                .build());
+        TimeLimiterRegistry timeLimiterRegistry = TimeLimiterRegistry.of(TimeLimiterConfig.custom()
+                .timeoutDuration(Duration.ofMillis(timeoutMs))
+                .cancelRunningFuture(true)
+                .build());
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(NAME);
+        this.bulkhead = bulkheadRegistry.bulkhead(NAME);
+        if (virtualThreads) {
+            BulkheadRegistry virtualBulkheadRegistry = BulkheadRegistry.of(BulkheadConfig.custom()
+                    .maxConcurrentCalls(maxConcurrentCalls)
+                    .maxWaitDuration(Duration.ofMillis(timeoutMs))
+                    .build());
+            this.virtualBulkhead = virtualBulkheadRegistry.bulkhead(NAME);
+            TaggedBulkheadMetrics.ofBulkheadRegistry(virtualBulkheadRegistry).bindTo(meterRegistry);
+        } else {
+            this.virtualBulkhead = null;
+        }
+        this.timeLimiter = timeLimiterRegistry.timeLimiter(NAME);
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakerRegistry).bindTo(meterRegistry);
+        TaggedThreadPoolBulkheadMetrics.ofThreadPoolBulkheadRegistry(bulkheadRegistry).bindTo(meterRegistry);
+        TaggedTimeLimiterMetrics.ofTimeLimiterRegistry(timeLimiterRegistry).bindTo(meterRegistry);
+
+        this.timeoutScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stats-time-limiter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.lastKnown = Caffeine.newBuilder()
+                .maximumSize(lastKnownMaxSize)
+                .build();
+        this.fallbacks = Counter.builder("stats.client.fallbacks")
+                .description("Запросы статистики, на которые ответили запасными значениями")
+                .register(meterRegistry);
+    }
+
+    public StatsResult getStats(String start, String end, List<String> uris, boolean unique, boolean approximate) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "FALLBACK";
+        try {
+            List<StatsDto> stats = circuitBreaker.executeCompletionStage(() ->
+                            timeLimiter.executeCompletionStage(timeoutScheduler, () ->
+                                    submit(() -> statClient.getStats(start, end, uris, unique, approximate))))
+                    .toCompletableFuture()
+                    .join();
+            for (StatsDto stat : stats) {
+                lastKnown.put(key(stat.getUri(), unique), stat.getHits());
+            }
+            outcome = "SUCCESS";
+            return new StatsResult(stats, false);
+        } catch (RuntimeException e) {
+            return fallback(uris, unique, e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+        } finally {
+            // Полное ожидание потока запроса: очередь пула, вызов stats-server и таймаут
+            sample.stop(Timer.builder("stats.client.calls")
+                    .description("Время получения статистики в потоке запроса")
+                    .tag(MetricsConfig.ENDPOINT_TAG, MetricsConfig.currentEndpoint())
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timeoutScheduler.shutdownNow();
+        try {
+            bulkhead.close();
+        } catch (Exception e) {
+            log.warn("Не удалось остановить пул запросов статистики: {}", e.getMessage());
+        }
+    }
+
+    private CompletionStage<List<StatsDto>> submit(Supplier<List<StatsDto>> call) {
+        if (virtualBulkhead == null) {
+            return bulkhead.executeSupplier(call);
+        }
+        return CompletableFuture.supplyAsync(virtualBulkhead.decorateSupplier(call), fanOutExecutor);
+    }
+
+    private StatsResult fallback(List<String> uris, boolean unique, Throwable cause) {
+        fallbacks.increment();
+        log.warn("Статистика недоступна, используются последние известные значения: {}", cause.toString());
+        markDegraded();
+        // uris == null - статистика по всем uri: последние значения известны не для всех, отдаём пустой список
+        if (uris == null) {
+            return new StatsResult(List.of(), true);
+        }
+        List<StatsDto> stats = new ArrayList<>(uris.size());
+        for (String uri : uris) {
+            Long hits = lastKnown.getIfPresent(key(uri, unique));
+            stats.add(new StatsDto(null, uri, hits == null ? 0L : hits));
+        }
+        return new StatsResult(stats, true);
+    }
+
+    // Вызывается в потоке запроса, поэтому заголовок попадает в ещё не отправленный ответ
+    private static void markDegraded() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                && attributes.getResponse() != null) {
+            attributes.getResponse().setHeader(DEGRADED_HEADER, "true");
+        }
+    }
+
+    private static String key(String uri, boolean unique) {
+        return (unique ? "u:" : "a:") + uri;
+    }
+}
@@ -0,0 +1,9 @@
+package ru.practicum.stats;
+
+import ru.practicum.dto.StatsDto;
+
+import java.util.List;
+
+// Ответ статистики; degraded - значения запасные (последние известные или 0), кэшировать их нельзя
+public record StatsResult(List<StatsDto> stats, boolean degraded) {
+}
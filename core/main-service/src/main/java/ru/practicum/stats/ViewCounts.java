@@ -0,0 +1,11 @@
+package ru.practicum.stats;
+
+import java.util.Map;
+
+// Просмотры пачки событий; degraded - часть значений запасные, stats-server не ответил
+public record ViewCounts(Map<Long, Long> views, boolean degraded) {
+
+    public long get(Long eventId) {
+        return views.getOrDefault(eventId, 0L);
+    }
+}
@@ -0,0 +1,121 @@
+create table if not exists users
+(
+    id bigint GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    email varchar(254) NOT NULL,
+    name varchar(250) NOT NULL,
+    CONSTRAINT pk_user PRIMARY KEY (id)
+);
+
+create index if not exists idx_users_email on users (email);
+
+create table if not exists categories
+(
+    id bigint GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    name varchar(50) NOT NULL,
+    CONSTRAINT pk_category PRIMARY KEY (id)
+);
+
+create table if not exists events
+(
+    id bigint GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    annotation varchar(2000) NOT NULL,
+    category_id bigint NOT NULL,
+    confirmed_requests bigint NOT NULL DEFAULT 0,
+    created_on timestamp WITHOUT TIME ZONE NOT NULL,
+    description varchar(7000) NOT NULL,
+    event_date timestamp WITHOUT TIME ZONE NOT NULL,
+    initiator_id bigint NOT NULL,
+    lat double precision NOT NULL,
+    lon double precision NOT NULL,
+    paid boolean NOT NULL DEFAULT false,
+    participant_limit bigint NOT NULL DEFAULT 0,
+    published_on timestamp WITHOUT TIME ZONE,
+    request_moderation boolean NOT NULL DEFAULT true,
+    state varchar(20) NOT NULL,
+    title varchar(120) NOT NULL,
+    CONSTRAINT pk_event PRIMARY KEY (id),
+    CONSTRAINT fk_event_category FOREIGN KEY (category_id) REFERENCES categories (id),
+    CONSTRAINT fk_event_initiator FOREIGN KEY (initiator_id) REFERENCES users (id)
+);
+
+-- Keyset-пагинация публичного поиска по (event_date, id) среди опубликованных событий
+create index if not exists idx_events_state_event_date on events (state, event_date, id);
+create index if not exists idx_events_initiator on events (initiator_id, event_date);
+create index if not exists idx_events_category on events (category_id);
+
+-- Триграммные индексы для поиска подстроки LOWER(...) LIKE '%text%' без полного просмотра events
+create extension if not exists pg_trgm;
+
+create index if not exists idx_events_title_trgm on events using gin (lower(title) gin_trgm_ops);
+create index if not exists idx_events_annotation_trgm on events using gin (lower(annotation) gin_trgm_ops);
+create index if not exists idx_events_description_trgm on events using gin (lower(description) gin_trgm_ops);
+
+-- Полнотекстовый вектор для ранжирования: заголовок весомее аннотации, аннотация весомее описания.
+-- Конфигурация simple не зависит от языка текста
+alter table events add column if not exists search_vector tsvector
+    generated always as (
+        setweight(to_tsvector('simple', coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('simple', coalesce(annotation, '')), 'B') ||
+        setweight(to_tsvector('simple', coalesce(description, '')), 'C')
+    ) stored;
+
+create index if not exists idx_events_search_vector on events using gin (search_vector);
+
+-- Материализованные просмотры для сортировки VIEWS
+create table if not exists event_views
+(
+    event_id bigint NOT NULL,
+    views bigint NOT NULL,
+    updated_on timestamp WITHOUT TIME ZONE NOT NULL,
+    CONSTRAINT pk_event_views PRIMARY KEY (event_id)
+);
+
+create index if not exists idx_event_views_views on event_views (views DESC, event_id);
+
+-- Одна заявка пользователя на событие; уникальный индекс (requester_id, event_id) обслуживает и выборку заявок пользователя
+create table if not exists requests
+(
+    id bigint GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    created timestamp WITHOUT TIME ZONE NOT NULL,
+    event_id bigint NOT NULL,
+    requester_id bigint NOT NULL,
+    status varchar(20) NOT NULL,
+    CONSTRAINT pk_request PRIMARY KEY (id),
+    CONSTRAINT fk_request_event FOREIGN KEY (event_id) REFERENCES events (id),
+    CONSTRAINT fk_request_requester FOREIGN KEY (requester_id) REFERENCES users (id),
+    CONSTRAINT uq_request_requester_event UNIQUE (requester_id, event_id)
+);
+
+create index if not exists idx_requests_event_status on requests (event_id, status);
+
+create table if not exists compilations
+(
+    id bigint GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    title varchar(50) NOT NULL,
+    pinned boolean NOT NULL DEFAULT false,
+    CONSTRAINT pk_compilation PRIMARY KEY (id)
+);
+
+create table if not exists events_compilations
+(
+    compilation_id bigint NOT NULL,
+    event_id bigint NOT NULL,
+    CONSTRAINT pk_events_compilations PRIMARY KEY (compilation_id, event_id),
+    CONSTRAINT fk_events_compilations_compilation FOREIGN KEY (compilation_id) REFERENCES compilations (id) ON DELETE CASCADE,
+    CONSTRAINT fk_events_compilations_event FOREIGN KEY (event_id) REFERENCES events (id)
+);
+
+create table if not exists comments
+(
+    id bigint GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    user_id bigint NOT NULL,
+    event_id bigint NOT NULL,
+    message varchar(2000),
+    created timestamp WITHOUT TIME ZONE,
+    CONSTRAINT pk_comment PRIMARY KEY (id),
+    CONSTRAINT fk_comment_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_comment_event FOREIGN KEY (event_id) REFERENCES events (id)
+);
+
+create index if not exists idx_comments_event_created on comments (event_id, created);
+create index if not exists idx_comments_user on comments (user_id, created);
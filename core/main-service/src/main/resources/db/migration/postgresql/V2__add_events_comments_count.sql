@@ -0,0 +1,9 @@
+-- Денормализованное количество комментариев: меняется атомарно вместе с комментарием,
+-- расхождения исправляет CommentsCountReconciler
+alter table events add column if not exists comments_count bigint NOT NULL DEFAULT 0;
+
+update events e
+set comments_count = (select count(*) from comments c where c.event_id = e.id);
+
+-- Keyset-пагинация публичного поиска по (comments_count DESC, id) среди опубликованных событий
+create index if not exists idx_events_state_comments_count on events (state, comments_count DESC, id);
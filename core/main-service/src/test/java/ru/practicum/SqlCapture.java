@@ -0,0 +1,106 @@
+package ru.practicum;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Запоминает SQL и параметры PreparedStatement, выполненных внутри record(): так тест видит ровно тот SQL,
+// который сгенерировал Hibernate, и может повторить его с теми же параметрами, например под EXPLAIN
+public final class SqlCapture {
+    private static final Set<String> EXECUTE_METHODS = Set.of("execute", "executeQuery", "executeUpdate",
+            "executeLargeUpdate");
+
+    private final List<CapturedStatement> captured = new CopyOnWriteArrayList<>();
+    private volatile boolean recording;
+
+    public DataSource wrap(DataSource dataSource) {
+        return proxy(DataSource.class, (proxy, method, args) -> {
+            Object result = invoke(dataSource, method, args);
+            return result instanceof Connection connection && method.getName().equals("getConnection")
+                    ? wrap(connection)
+                    : result;
+        });
+    }
+
+    public List<CapturedStatement> record(Runnable action) {
+        captured.clear();
+        recording = true;
+        try {
+            action.run();
+        } finally {
+            recording = false;
+        }
+        return List.copyOf(captured);
+    }
+
+    private Connection wrap(Connection connection) {
+        return proxy(Connection.class, (proxy, method, args) -> {
+            Object result = invoke(connection, method, args);
+            return result instanceof PreparedStatement statement && method.getName().equals("prepareStatement")
+                    ? wrap(statement, (String) args[0])
+                    : result;
+        });
+    }
+
+    private PreparedStatement wrap(PreparedStatement statement, String sql) {
+        List<ParameterCall> parameters = new ArrayList<>();
+        return proxy(PreparedStatement.class, (proxy, method, args) -> {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                parameters.add(new ParameterCall(method, args.clone()));
+            } else if (name.equals("clearParameters")) {
+                parameters.clear();
+            } else if (recording && EXECUTE_METHODS.contains(name) && args == null) {
+                captured.add(new CapturedStatement(sql, List.copyOf(parameters)));
+            }
+            return invoke(statement, method, args);
+        });
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(SqlCapture.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    public record CapturedStatement(String sql, List<ParameterCall> parameters) {
+        // Тот же запрос с префиксом (например, "EXPLAIN ") и теми же значениями параметров
+        public PreparedStatement prepare(Connection connection, String prefix) throws SQLException {
+            PreparedStatement statement = connection.prepareStatement(prefix + sql);
+            for (ParameterCall parameter : parameters) {
+                parameter.apply(statement);
+            }
+            return statement;
+        }
+    }
+
+    public record ParameterCall(Method setter, Object[] args) {
+        void apply(PreparedStatement statement) throws SQLException {
+            try {
+                setter.invoke(statement, args);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            } catch (InvocationTargetException e) {
+                if (e.getCause() instanceof SQLException sqlException) {
+                    throw sqlException;
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+    }
+}
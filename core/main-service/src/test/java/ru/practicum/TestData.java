@@ -0,0 +1,51 @@
+package ru.practicum;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+// Заполнение базы прямыми INSERT: тесты не зависят от сервисов и их проверок
+public class TestData {
+    private final JdbcTemplate jdbcTemplate;
+
+    public TestData(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public long user(String name) {
+        return jdbcTemplate.queryForObject("INSERT INTO users (email, name) VALUES (?, ?) RETURNING id", Long.class,
+                name + "@example.com", name);
+    }
+
+    public long category(String name) {
+        return jdbcTemplate.queryForObject("INSERT INTO categories (name) VALUES (?) RETURNING id", Long.class, name);
+    }
+
+    public long publishedEvent(long categoryId, long initiatorId, String title, LocalDateTime eventDate,
+                               long participantLimit, boolean requestModeration) {
+        return jdbcTemplate.queryForObject("INSERT INTO events (annotation, category_id, created_on, description, " +
+                        "event_date, initiator_id, lat, lon, paid, participant_limit, published_on, request_moderation, " +
+                        "state, title) VALUES (?, ?, ?, ?, ?, ?, 55.75, 37.62, false, ?, ?, ?, 'PUBLISHED', ?) RETURNING id",
+                Long.class,
+                "Аннотация события " + title, categoryId, Timestamp.valueOf(eventDate.minusDays(30)),
+                "Описание события " + title, Timestamp.valueOf(eventDate), initiatorId, participantLimit,
+                Timestamp.valueOf(eventDate.minusDays(20)), requestModeration, title);
+    }
+
+    public long publishedEvent(long categoryId, long initiatorId, String title) {
+        return publishedEvent(categoryId, initiatorId, title, LocalDateTime.now().plusDays(10), 0, false);
+    }
+
+    public long request(long eventId, long requesterId, String status) {
+        return jdbcTemplate.queryForObject("INSERT INTO requests (created, event_id, requester_id, status) " +
+                        "VALUES (?, ?, ?, ?) RETURNING id", Long.class,
+                Timestamp.valueOf(LocalDateTime.now()), eventId, requesterId, status);
+    }
+
+    public long comment(long eventId, long userId, String message) {
+        return jdbcTemplate.queryForObject("INSERT INTO comments (user_id, event_id, message, created) " +
+                        "VALUES (?, ?, ?, ?) RETURNING id", Long.class,
+                userId, eventId, message, Timestamp.valueOf(LocalDateTime.now()));
+    }
+}
@@ -0,0 +1,38 @@
+package ru.practicum;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+// Один встроенный PostgreSQL на все тесты модуля; схему создают миграции Flyway, как в рабочей базе
+public final class TestPostgres {
+    private static final EmbeddedPostgres POSTGRES = start();
+
+    private TestPostgres() {
+    }
+
+    public static void register(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    // База общая для всех тестов, поэтому каждый тест начинает с пустых таблиц
+    public static void truncate(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.execute("TRUNCATE comments, requests, events_compilations, compilations, event_views, events, " +
+                "categories, users RESTART IDENTITY CASCADE");
+    }
+
+    private static EmbeddedPostgres start() {
+        try {
+            return EmbeddedPostgres.builder()
+                    .setServerConfig("max_connections", "100")
+                    .start();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось запустить встроенный PostgreSQL", e);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package ru.practicum.centralRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import ru.practicum.TestData;
+import ru.practicum.TestPostgres;
+import ru.practicum.entities.event.model.dto.AdminEventSearch;
+import ru.practicum.entities.event.model.dto.PublicEventSearch;
+import ru.practicum.entities.event.model.mapper.EventMapper;
+import ru.practicum.entities.request.model.ParticipationRequest;
+import ru.practicum.entities.request.model.mapper.ParticipationRequestMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Число SQL-запросов списков не зависит от размера страницы: категория и инициатор приходят тем же select,
+// связи заявок не загружаются. Регрессия N+1 видна как рост getPrepareStatementCount() вместе с size
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class EventListingQueryCountTest {
+    private static final int EVENTS = 20;
+
+    @Autowired
+    private EventRepository eventRepository;
+    @Autowired
+    private ParticipationRequestRepository participationRequestRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+    private final List<Long> eventIds = new ArrayList<>();
+    private long requesterId;
+    private long singleRequesterId;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        TestPostgres.register(registry);
+    }
+
+    // У каждого события своя категория и свой инициатор - худший случай для N+1
+    @BeforeEach
+    void seed() {
+        TestPostgres.truncate(jdbcTemplate);
+        TestData data = new TestData(jdbcTemplate);
+        requesterId = data.user("requester");
+        singleRequesterId = data.user("single-requester");
+        for (int i = 0; i < EVENTS; i++) {
+            long eventId = data.publishedEvent(data.category("category-" + i), data.user("initiator-" + i), "event-" + i);
+            eventIds.add(eventId);
+            data.request(eventId, requesterId, "PENDING");
+        }
+        data.request(eventIds.getFirst(), singleRequesterId, "PENDING");
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, EVENTS})
+    void adminSearchUsesOneStatement(int size) {
+        long statements = countStatements(() -> eventRepository.findAdminEventsByFilters(AdminEventSearch.builder()
+                        .from(0)
+                        .size(size)
+                        .build())
+                .stream()
+                .map(EventMapper::toEventDto)
+                .toList(), size);
+
+        assertThat(statements).isEqualTo(1);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, EVENTS})
+    void publicSearchUsesOneStatement(int size) {
+        long statements = countStatements(() -> eventRepository.findCommonEventsByFilters(PublicEventSearch.builder()
+                        .from(0)
+                        .size(size)
+                        .build())
+                .stream()
+                .map(EventMapper::toEventShortDto)
+                .toList(), size);
+
+        assertThat(statements).isEqualTo(1);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, EVENTS})
+    void findAllByIdInUsesOneStatement(int size) {
+        List<Long> ids = eventIds.subList(0, size);
+        long statements = countStatements(() -> eventRepository.findAllByIdIn(ids)
+                .stream()
+                .map(EventMapper::toEventDto)
+                .toList(), size);
+
+        assertThat(statements).isEqualTo(1);
+    }
+
+    // Маппер заявок читает только id события и пользователя, ленивые связи не инициализируются
+    @ParameterizedTest
+    @ValueSource(ints = {1, EVENTS})
+    void requestListingDoesNotLoadAssociations(int size) {
+        long requester = size == 1 ? singleRequesterId : requesterId;
+        long statements = countStatements(() -> participationRequestRepository.findAllByRequesterId(requester)
+                .stream()
+                .map(ParticipationRequestMapper::toParticipationRequestDto)
+                .toList(), size);
+
+        assertThat(statements).isEqualTo(1);
+        assertThat(participationRequestRepository.findAllByRequesterId(requester))
+                .extracting(ParticipationRequest::getEvent)
+                .allSatisfy(event -> assertThat(Hibernate.isInitialized(event)).isFalse());
+    }
+
+    // Считает запросы на чтение списка с пустым контекстом персистентности и проверяет размер результата
+    private long countStatements(Supplier<List<?>> listing, int expectedSize) {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        List<?> result = listing.get();
+        long statements = statistics.getPrepareStatementCount();
+        assertThat(result).hasSize(expectedSize);
+        return statements;
+    }
+}
@@ -0,0 +1,262 @@
+package ru.practicum.centralRepository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.SqlCapture;
+import ru.practicum.TestPostgres;
+import ru.practicum.entities.event.model.dto.AdminEventSearch;
+import ru.practicum.entities.event.model.dto.PublicEventSearch;
+import ru.practicum.entities.event.model.enums.EventSearchOrder;
+import ru.practicum.entities.event.model.enums.EventState;
+import ru.practicum.entities.request.model.ParticipationRequestStatus;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Регрессия планов: методы репозиториев вызываются как в сервисах, SQL и параметры, которые сгенерировал
+// Hibernate, повторяются под EXPLAIN (FORMAT JSON). events, requests и comments должны читаться только
+// по условию индекса: полный просмотр таблицы или полный проход индекса без Index Cond валит тест.
+// Планировщик работает с настройками по умолчанию, поэтому данные похожи на рабочие: большая часть
+// событий в прошлом, будущих опубликованных около 2%, текст "jazz" встречается в 0,1% событий
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class QueryPlanTest {
+    private static final SqlCapture CAPTURE = new SqlCapture();
+    private static final Set<String> CHECKED_TABLES = Set.of("events", "requests", "comments");
+    private static final Set<String> INDEX_SCANS = Set.of("Index Scan", "Index Only Scan");
+    private static final long UNUSED_CATEGORY = 21;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    private EventRepository eventRepository;
+    @Autowired
+    private ParticipationRequestRepository participationRequestRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @TestConfiguration
+    static class CaptureConfig {
+        @Bean
+        static BeanPostProcessor capturingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? CAPTURE.wrap(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        TestPostgres.register(registry);
+    }
+
+    @BeforeAll
+    void seed() {
+        TestPostgres.truncate(jdbcTemplate);
+        jdbcTemplate.execute("INSERT INTO users (email, name) " +
+                "SELECT 'user' || i || '@example.com', 'user ' || i FROM generate_series(1, 500) i");
+        jdbcTemplate.execute("INSERT INTO categories (name) " +
+                "SELECT 'category ' || i FROM generate_series(1, " + UNUSED_CATEGORY + ") i");
+        jdbcTemplate.execute("INSERT INTO events (annotation, category_id, created_on, description, event_date, " +
+                "initiator_id, lat, lon, paid, participant_limit, published_on, request_moderation, state, title) " +
+                "SELECT 'annotation of event ' || i || CASE WHEN i % 997 = 0 THEN ' jazz night' ELSE ' meetup' END, " +
+                "1 + i % 20, localtimestamp - interval '400 days', 'description of event ' || i, " +
+                "CASE WHEN i % 50 = 0 THEN localtimestamp + make_interval(hours => i) " +
+                "     ELSE localtimestamp - make_interval(hours => i) END, " +
+                "1 + i % 500, 55.75, 37.62, i % 2 = 0, i % 10, localtimestamp - interval '300 days', true, " +
+                "CASE WHEN i % 7 = 0 THEN 'PENDING' ELSE 'PUBLISHED' END, 'event ' || i " +
+                "FROM generate_series(1, 20000) i");
+        jdbcTemplate.execute("INSERT INTO event_views (event_id, views, updated_on) " +
+                "SELECT id, id % 1000, localtimestamp FROM events WHERE state = 'PUBLISHED'");
+        jdbcTemplate.execute("INSERT INTO requests (created, event_id, requester_id, status) " +
+                "SELECT localtimestamp, 1 + i % 20000, 1 + i % 500, " +
+                "(ARRAY['PENDING', 'CONFIRMED', 'REJECTED', 'CANCELED'])[1 + i % 4] FROM generate_series(0, 19999) i");
+        jdbcTemplate.execute("INSERT INTO comments (user_id, event_id, message, created) " +
+                "SELECT 1 + i % 500, 1 + (i * 7) % 20000, 'comment ' || i, localtimestamp - make_interval(mins => i) " +
+                "FROM generate_series(1, 20000) i");
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    // Все запросы публичных и закрытых эндпоинтов, кроме findFilteredComments: администраторский список
+    // всех комментариев за период идёт по первичному ключу, индекса по одному created нет.
+    // Ожидаемый индекс не указан там, где планировщик вправе выбрать любой из подходящих
+    Stream<Arguments> queries() {
+        LocalDateTime now = LocalDateTime.now();
+        PageRequest page = PageRequest.of(0, 10);
+        return Stream.of(
+                Arguments.of("публичный поиск по дате", (Runnable) () -> eventRepository.findCommonEventsByFilters(
+                                PublicEventSearch.builder().from(0).size(10).build()),
+                        "idx_events_state_event_date"),
+                Arguments.of("публичный поиск по дате, следующая страница", (Runnable) () ->
+                                eventRepository.findCommonEventsByEventDate(null, null, null, null, null, null,
+                                        EventState.PUBLISHED, now, now.plusDays(1), 100L, page),
+                        "idx_events_state_event_date"),
+                Arguments.of("публичный поиск по тексту", (Runnable) () -> eventRepository.findCommonEventsByFilters(
+                                PublicEventSearch.builder().text("jazz").rangeStart(now.minusYears(10))
+                                        .from(0).size(10).build()),
+                        "idx_events_annotation_trgm"),
+                Arguments.of("поиск по релевантности", (Runnable) () -> eventRepository.findCommonEventsByFilters(
+                                PublicEventSearch.builder().text("jazz").rangeStart(now.minusYears(10))
+                                        .sort(EventSearchOrder.RELEVANCE).from(0).size(10).build()),
+                        "idx_events_annotation_trgm"),
+                Arguments.of("публичный поиск по просмотрам", (Runnable) () -> eventRepository.findCommonEventsByFilters(
+                                PublicEventSearch.builder().sort(EventSearchOrder.VIEWS).from(0).size(10).build()),
+                        null),
+                Arguments.of("публичный поиск по комментариям", (Runnable) () -> eventRepository.findCommonEventsByFilters(
+                                PublicEventSearch.builder().sort(EventSearchOrder.COMMENTS).from(0).size(10).build()),
+                        null),
+                Arguments.of("поиск администратора", (Runnable) () -> eventRepository.findAdminEventsByFilters(
+                                AdminEventSearch.builder().users(List.of(1L, 2L, 3L))
+                                        .states(List.of(EventState.PENDING.name(), EventState.PUBLISHED.name()))
+                                        .from(0).size(10).build()),
+                        "idx_events_initiator"),
+                Arguments.of("события пользователя", (Runnable) () ->
+                                eventRepository.findShortByInitiatorId(42L, 0, 10),
+                        "idx_events_initiator"),
+                Arguments.of("событие по id", (Runnable) () -> eventRepository.findById(42L),
+                        "pk_event"),
+                Arguments.of("события подборки", (Runnable) () ->
+                                eventRepository.findAllByIdIn(List.of(1L, 2L, 3L, 4L, 5L)),
+                        "pk_event"),
+                Arguments.of("краткие события по id", (Runnable) () ->
+                                eventRepository.findShortByIdIn(List.of(1L, 2L, 3L, 4L, 5L)),
+                        "pk_event"),
+                Arguments.of("проверка перед удалением категории", (Runnable) () ->
+                                eventRepository.existsByCategoryId(UNUSED_CATEGORY),
+                        "idx_events_category"),
+                Arguments.of("пачка опубликованных событий", (Runnable) () ->
+                                eventRepository.findIdsByStateAfter(EventState.PUBLISHED, 19000L, PageRequest.of(0, 500)),
+                        "pk_event"),
+                Arguments.of("опубликованные из недавно просмотренных", (Runnable) () ->
+                                eventRepository.findIdsByStateAndIdIn(EventState.PUBLISHED, List.of(1L, 2L, 3L, 4L, 5L)),
+                        "pk_event"),
+                Arguments.of("резерв мест", (Runnable) () -> eventRepository.incrementConfirmedRequests(42L, 1),
+                        "pk_event"),
+                Arguments.of("блокировка пачки для сверки комментариев", (Runnable) () ->
+                                eventRepository.lockByIdIn(List.of(1L, 2L, 3L, 4L, 5L)),
+                        "pk_event"),
+                Arguments.of("сверка количества комментариев", (Runnable) () ->
+                                eventRepository.reconcileCommentsCount(List.of(1L, 2L, 3L, 4L, 5L)),
+                        "idx_comments_event_created"),
+                Arguments.of("заявки пользователя", (Runnable) () ->
+                                participationRequestRepository.findAllByRequesterId(42L),
+                        "uq_request_requester_event"),
+                Arguments.of("заявки события", (Runnable) () -> participationRequestRepository.findAllByEventId(42L),
+                        "idx_requests_event_status"),
+                Arguments.of("статусы заявок события", (Runnable) () ->
+                                participationRequestRepository.findStatusesByEventIdAndIdIn(42L, List.of(41L, 42L)),
+                        null),
+                Arguments.of("подтверждение заявок", (Runnable) () ->
+                                participationRequestRepository.updatePendingStatuses(42L, List.of(41L, 42L),
+                                        ParticipationRequestStatus.CONFIRMED),
+                        null),
+                Arguments.of("отклонение ожидающих заявок", (Runnable) () ->
+                                participationRequestRepository.rejectAllPending(42L),
+                        "idx_requests_event_status"),
+                Arguments.of("результат подтверждения", (Runnable) () ->
+                                participationRequestRepository.findDtosByEventIdAndStatusIn(42L,
+                                        List.of(ParticipationRequestStatus.CONFIRMED, ParticipationRequestStatus.REJECTED)),
+                        "idx_requests_event_status"),
+                Arguments.of("комментарии события", (Runnable) () ->
+                                commentRepository.findCommentsByEventIdAndDates(42L, null, null, page),
+                        "idx_comments_event_created"),
+                Arguments.of("комментарии пользователя", (Runnable) () ->
+                                commentRepository.findCommentsByUserIdAndDates(42L, null, null, page),
+                        "idx_comments_user")
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("queries")
+    void queryReadsTablesByIndexConditions(String name, Runnable query, String expectedIndex) throws Exception {
+        List<SqlCapture.CapturedStatement> statements = CAPTURE.record(() -> inRolledBackTransaction(query));
+        assertThat(statements).as("запрос не выполнил ни одного SQL").isNotEmpty();
+
+        List<String> indexes = new ArrayList<>();
+        for (SqlCapture.CapturedStatement statement : statements) {
+            JsonNode plan = objectMapper.readTree(explain(statement)).get(0).get("Plan");
+            List<String> fullScans = new ArrayList<>();
+            collect(plan, fullScans, indexes);
+            assertThat(fullScans).as("полный просмотр в плане запроса %s:%n%s", statement.sql(), plan.toPrettyString())
+                    .isEmpty();
+        }
+        if (expectedIndex != null) {
+            assertThat(indexes).as("индексы в планах").contains(expectedIndex);
+        }
+    }
+
+    // Изменяющие запросы тоже выполняются по-настоящему, поэтому транзакция откатывается
+    private void inRolledBackTransaction(Runnable query) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            query.run();
+            status.setRollbackOnly();
+        });
+    }
+
+    private String explain(SqlCapture.CapturedStatement statement) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (PreparedStatement explain = statement.prepare(connection, "EXPLAIN (FORMAT JSON) ");
+                 ResultSet rs = explain.executeQuery()) {
+                rs.next();
+                return rs.getString(1);
+            }
+        });
+    }
+
+    private static void collect(JsonNode node, List<String> fullScans, List<String> indexes) {
+        String nodeType = node.path("Node Type").asText();
+        String relation = node.path("Relation Name").asText(null);
+        if (CHECKED_TABLES.contains(relation)) {
+            if (nodeType.equals("Seq Scan")) {
+                fullScans.add(nodeType + " " + relation);
+            } else if (INDEX_SCANS.contains(nodeType) && !node.has("Index Cond")) {
+                fullScans.add(nodeType + " " + relation + " " + node.path("Index Name").asText());
+            }
+        }
+        if (node.has("Index Name")) {
+            indexes.add(node.get("Index Name").asText());
+        }
+        for (JsonNode child : node.path("Plans")) {
+            collect(child, fullScans, indexes);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package ru.practicum.entities.request.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import ru.practicum.TestData;
+import ru.practicum.TestPostgres;
+import ru.practicum.entities.request.model.ParticipationRequestStatus;
+import ru.practicum.entities.request.model.dto.EventRequestStatusUpdateRequest;
+import ru.practicum.exception.ConditionsNotMetException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Гонка за последние места: потоки одновременно подают и подтверждают заявки на одно событие.
+// После гонки confirmed_requests не больше лимита и совпадает с числом заявок CONFIRMED.
+// Задачи в виртуальных потоках: их сотни, и все они ждут соединение из пула, поэтому ожидание увеличено
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "spring.datasource.hikari.connection-timeout=120000")
+@ActiveProfiles("test")
+class ParticipationRequestConcurrencyTest {
+    private static final int THREADS = 500;
+    private static final int LIMIT = 20;
+
+    @Autowired
+    private ParticipationRequestService participationRequestService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private TestData data;
+    private long initiatorId;
+    private long categoryId;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        TestPostgres.register(registry);
+    }
+
+    @BeforeEach
+    void seed() {
+        TestPostgres.truncate(jdbcTemplate);
+        data = new TestData(jdbcTemplate);
+        initiatorId = data.user("initiator");
+        categoryId = data.category("race");
+    }
+
+    @Test
+    void concurrentSignUpsDoNotExceedLimit() throws Exception {
+        long eventId = event(false);
+        List<Runnable> tasks = new ArrayList<>();
+        for (long userId : users("requester", THREADS)) {
+            tasks.add(() -> participationRequestService.create(userId, eventId));
+        }
+
+        int succeeded = runConcurrently(tasks);
+
+        assertThat(succeeded).isEqualTo(LIMIT);
+        assertConsistent(eventId);
+    }
+
+    @Test
+    void concurrentConfirmationsDoNotExceedLimit() throws Exception {
+        long eventId = event(true);
+        List<Runnable> tasks = new ArrayList<>();
+        for (long userId : users("requester", THREADS)) {
+            long requestId = data.request(eventId, userId, ParticipationRequestStatus.PENDING.name());
+            tasks.add(() -> confirm(eventId, requestId));
+        }
+
+        int succeeded = runConcurrently(tasks);
+
+        assertThat(succeeded).isEqualTo(LIMIT);
+        assertConsistent(eventId);
+        assertThat(countRequests(eventId, ParticipationRequestStatus.PENDING)).isZero();
+    }
+
+    // Подтверждения ожидающих заявок и новые заявки без модерации занимают одни и те же места
+    @Test
+    void signUpsAndConfirmationsShareTheLimit() throws Exception {
+        long eventId = event(true);
+        List<Runnable> tasks = new ArrayList<>();
+        for (long userId : users("pending", THREADS / 2)) {
+            long requestId = data.request(eventId, userId, ParticipationRequestStatus.PENDING.name());
+            tasks.add(() -> confirm(eventId, requestId));
+        }
+        jdbcTemplate.update("UPDATE events SET request_moderation = false WHERE id = ?", eventId);
+        for (long userId : users("direct", THREADS / 2)) {
+            tasks.add(() -> participationRequestService.create(userId, eventId));
+        }
+
+        int succeeded = runConcurrently(tasks);
+
+        assertThat(succeeded).isEqualTo(LIMIT);
+        assertConsistent(eventId);
+    }
+
+    private void assertConsistent(long eventId) {
+        long confirmedRequests = jdbcTemplate.queryForObject(
+                "SELECT confirmed_requests FROM events WHERE id = ?", Long.class, eventId);
+        assertThat(confirmedRequests).isLessThanOrEqualTo(LIMIT);
+        assertThat(confirmedRequests).isEqualTo(countRequests(eventId, ParticipationRequestStatus.CONFIRMED));
+    }
+
+    private long countRequests(long eventId, ParticipationRequestStatus status) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM requests WHERE event_id = ? AND status = ?",
+                Long.class, eventId, status.name());
+    }
+
+    private void confirm(long eventId, long requestId) {
+        participationRequestService.updateStatus(initiatorId, eventId, EventRequestStatusUpdateRequest.builder()
+                .requestIds(List.of(requestId))
+                .status(ParticipationRequestStatus.CONFIRMED)
+                .build());
+    }
+
+    private long event(boolean requestModeration) {
+        return data.publishedEvent(categoryId, initiatorId, "race", LocalDateTime.now().plusDays(10), LIMIT,
+                requestModeration);
+    }
+
+    private List<Long> users(String prefix, int count) {
+        List<Long> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            users.add(data.user(prefix + "-" + i));
+        }
+        return users;
+    }
+
+    // Все задачи стартуют одновременно; отказ по лимиту - ожидаемый исход, любое другое исключение валит тест
+    private int runConcurrently(List<Runnable> tasks) throws Exception {
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        ConcurrentLinkedQueue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Runnable task : tasks) {
+                futures.add(executor.submit(() -> {
+                    try {
+                        start.await();
+                        task.run();
+                        succeeded.incrementAndGet();
+                    } catch (ConditionsNotMetException e) {
+                        // место уже занято или заявка отклонена после исчерпания лимита
+                    } catch (Throwable e) {
+                        unexpected.add(e);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(unexpected).isEmpty();
+        return succeeded.get();
+    }
+}
@@ -0,0 +1,108 @@
+package ru.practicum.loadtest;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// Наполнение стенда через те же маршруты, что и в нагрузке: пользователи, категории,
+// опубликованные события, комментарии, заявки и закреплённые подборки
+@Slf4j
+@RequiredArgsConstructor
+class DataSeeder {
+    static final List<String> WORDS = List.of("концерт", "выставка", "лекция", "фестиваль", "спектакль",
+            "экскурсия", "турнир", "мастер-класс", "квест", "ярмарка");
+
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final EwmApiClient client;
+    private final LoadTestOptions options;
+    private final Random random = new Random(42);
+
+    SeededData seed() {
+        long started = System.nanoTime();
+        String suffix = Long.toString(System.currentTimeMillis(), 36);
+
+        List<Long> userIds = new ArrayList<>(options.users());
+        for (int i = 0; i < options.users(); i++) {
+            userIds.add(client.call("POST", "/admin/users", Map.of(
+                    "name", "Пользователь " + i,
+                    "email", "user" + i + "." + suffix + "@loadtest.ru")).get("id").asLong());
+        }
+
+        List<Long> categoryIds = new ArrayList<>(options.categories());
+        for (int i = 0; i < options.categories(); i++) {
+            categoryIds.add(client.call("POST", "/admin/categories",
+                    Map.of("name", "Категория " + i + " " + suffix)).get("id").asLong());
+        }
+
+        List<Long> eventIds = new ArrayList<>(options.events());
+        for (int i = 0; i < options.events(); i++) {
+            long userId = pick(userIds);
+            long eventId = client.call("POST", "/users/" + userId + "/events",
+                    newEvent(i, pick(categoryIds), 0, true)).get("id").asLong();
+            publish(eventId);
+            eventIds.add(eventId);
+        }
+
+        for (int i = 0; i < options.comments(); i++) {
+            client.call("POST", "/users/comments/" + pick(userIds) + "/" + pick(eventIds),
+                    Map.of("message", "Комментарий " + i + ": " + sentence(12)));
+        }
+
+        for (int i = 0; i < Math.min(10, eventIds.size()); i++) {
+            List<Long> compilationEvents = new ArrayList<>();
+            for (int j = 0; j < 10; j++) {
+                compilationEvents.add(pick(eventIds));
+            }
+            client.call("POST", "/admin/compilations", Map.of(
+                    "title", "Подборка " + i + " " + suffix,
+                    "pinned", i % 2 == 0,
+                    "events", compilationEvents));
+        }
+
+        log.info("Стенд наполнен за {} с: пользователей {}, категорий {}, событий {}, комментариев {}",
+                (System.nanoTime() - started) / 1_000_000_000, userIds.size(), categoryIds.size(), eventIds.size(),
+                options.comments());
+        return new SeededData(userIds, categoryIds, eventIds);
+    }
+
+    Map<String, Object> newEvent(int number, long categoryId, long participantLimit, boolean requestModeration) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("annotation", "Аннотация: " + sentence(20));
+        event.put("category", categoryId);
+        event.put("description", "Описание: " + sentence(200));
+        event.put("eventDate", LocalDateTime.now().plusDays(1 + random.nextInt(180)).format(DATE_TIME));
+        event.put("location", Map.of("lat", 55.75, "lon", 37.62));
+        event.put("paid", random.nextBoolean());
+        event.put("participantLimit", participantLimit);
+        event.put("requestModeration", requestModeration);
+        event.put("title", WORDS.get(number % WORDS.size()) + " номер " + number);
+        return event;
+    }
+
+    void publish(long eventId) {
+        client.call("PATCH", "/admin/events/" + eventId, Map.of("stateAction", "PUBLISH_EVENT"));
+    }
+
+    long pick(List<Long> ids) {
+        return ids.get(random.nextInt(ids.size()));
+    }
+
+    private String sentence(int words) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            builder.append(i == 0 ? "" : " ").append(WORDS.get(random.nextInt(WORDS.size())));
+        }
+        return builder.toString();
+    }
+
+    record SeededData(List<Long> userIds, List<Long> categoryIds, List<Long> eventIds) {
+    }
+}
@@ -0,0 +1,153 @@
+package ru.practicum.loadtest;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+import ru.practicum.dto.EndpointHitDto;
+import ru.practicum.dto.StatsDto;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+// Заглушка stats-server в том же процессе: принимает хиты и считает просмотры по uri.
+// Задержка ответа имитирует сетевой вызов к настоящему сервису
+@Slf4j
+class FakeStatsServer implements AutoCloseable {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, LongAdder> hits = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> ips = new ConcurrentHashMap<>();
+    private final LongAdder received = new LongAdder();
+    private final int latencyMs;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    FakeStatsServer(int latencyMs) throws IOException {
+        this.latencyMs = latencyMs;
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        this.executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.createContext("/hit", exchange -> handle(exchange, this::saveHit));
+        server.createContext("/hits", exchange -> handle(exchange, this::saveHits));
+        server.createContext("/stats", exchange -> handle(exchange, this::getStats));
+        server.start();
+        log.info("Заглушка stats-server запущена на порту {}", port());
+    }
+
+    int port() {
+        return server.getAddress().getPort();
+    }
+
+    long receivedHits() {
+        return received.sum();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void saveHit(HttpExchange exchange) throws IOException {
+        try (InputStream body = exchange.getRequestBody()) {
+            record(objectMapper.readValue(body, EndpointHitDto.class));
+        }
+        respond(exchange, 201, null);
+    }
+
+    private void saveHits(HttpExchange exchange) throws IOException {
+        try (InputStream body = exchange.getRequestBody()) {
+            objectMapper.readValue(body, new TypeReference<List<EndpointHitDto>>() {
+            }).forEach(this::record);
+        }
+        respond(exchange, 201, null);
+    }
+
+    private void getStats(HttpExchange exchange) throws IOException {
+        Map<String, String> params = queryParams(exchange.getRequestURI().getRawQuery());
+        boolean unique = Boolean.parseBoolean(params.get("unique"));
+        String uris = params.get("uris");
+        List<StatsDto> stats = new ArrayList<>();
+        if (uris != null && !uris.isBlank()) {
+            for (String uri : uris.split(",")) {
+                long count = unique ? ips.getOrDefault(uri, Set.of()).size() : hits.getOrDefault(uri, new LongAdder()).sum();
+                if (count > 0) {
+                    stats.add(new StatsDto("ewm-main-service", uri, count));
+                }
+            }
+        }
+        stats.sort(Comparator.comparing(StatsDto::getHits).reversed());
+        respond(exchange, 200, objectMapper.writeValueAsBytes(stats));
+    }
+
+    private void record(EndpointHitDto hit) {
+        received.increment();
+        hits.computeIfAbsent(hit.getUri(), uri -> new LongAdder()).increment();
+        ips.computeIfAbsent(hit.getUri(), uri -> ConcurrentHashMap.newKeySet()).add(hit.getIp());
+    }
+
+    private void handle(HttpExchange exchange, Handler handler) {
+        try (exchange) {
+            if (latencyMs > 0) {
+                Thread.sleep(latencyMs);
+            }
+            handler.handle(exchange);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ошибка заглушки stats-server: {}", e.getMessage());
+            try {
+                respond(exchange, 500, null);
+            } catch (IOException ignored) {
+                // ответ уже начат, соединение закрывается
+            }
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static Map<String, String> queryParams(String query) {
+        Map<String, String> params = new HashMap<>();
+        if (query == null) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, separator), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        void handle(HttpExchange exchange) throws IOException;
+    }
+}
@@ -0,0 +1,58 @@
+package ru.practicum.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// Сводка по маршрутам: таблица в лог и JSON-файл для сравнения прогонов
+@Slf4j
+class LoadReport {
+    private LoadReport() {
+    }
+
+    static Totals write(LoadTestOptions options, Map<String, LatencyRecorder.Summary> routes,
+                      SignUpRaceCheck.Result race, long statsHits) throws IOException {
+        StringBuilder table = new StringBuilder(String.format(Locale.ROOT, "%n%-42s %10s %8s %10s %10s %10s %10s%n",
+                "Маршрут", "Запросов", "Ошибок", "RPS", "p50, мс", "p99, мс", "max, мс"));
+        long requests = 0;
+        long errors = 0;
+        for (Map.Entry<String, LatencyRecorder.Summary> entry : routes.entrySet()) {
+            LatencyRecorder.Summary summary = entry.getValue();
+            requests += summary.requests();
+            errors += summary.errors();
+            table.append(String.format(Locale.ROOT, "%-42s %10d %8d %10.1f %10.2f %10.2f %10.2f%n", entry.getKey(),
+                    summary.requests(), summary.errors(), summary.throughput(), summary.p50Ms(), summary.p99Ms(),
+                    summary.maxMs()));
+        }
+        double throughput = (double) requests / options.durationSeconds();
+        table.append(String.format(Locale.ROOT, "Всего: %d запросов, %d ошибок, %.1f запросов в секунду",
+                requests, errors, throughput));
+        log.info(table.toString());
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("options", options);
+        result.put("requests", requests);
+        result.put("errors", errors);
+        result.put("throughput", throughput);
+        result.put("routes", routes);
+        result.put("signUpRace", race);
+        result.put("statsHits", statsHits);
+        Path path = Path.of(options.result());
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(path.toFile(), result);
+        log.info("Результаты записаны в {}", path.toAbsolutePath());
+        return new Totals(requests, errors, throughput);
+    }
+
+    record Totals(long requests, long errors, double throughput) {
+    }
+}
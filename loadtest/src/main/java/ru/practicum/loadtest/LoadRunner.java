@@ -0,0 +1,62 @@
+package ru.practicum.loadtest;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Закрытая модель нагрузки: concurrency потоков шлют запросы без пауз, каждый ждёт ответа перед следующим.
+// Потоки виртуальные, чтобы генератор держал тысячи одновременных запросов. Замеры прогрева в отчёт не попадают
+@Slf4j
+@RequiredArgsConstructor
+class LoadRunner {
+    private final EwmApiClient client;
+    private final TrafficMix mix;
+    private final LoadTestOptions options;
+
+    Map<String, LatencyRecorder.Summary> run() throws InterruptedException {
+        if (options.warmupSeconds() > 0) {
+            log.info("Прогрев {} с", options.warmupSeconds());
+            runPhase(options.warmupSeconds());
+        }
+        log.info("Нагрузка {} с, потоков {}", options.durationSeconds(), options.concurrency());
+        Map<String, LatencyRecorder> recorders = runPhase(options.durationSeconds());
+
+        Map<String, LatencyRecorder.Summary> summaries = new LinkedHashMap<>();
+        recorders.forEach((route, recorder) -> summaries.put(route, recorder.summarize(options.durationSeconds())));
+        return summaries;
+    }
+
+    private Map<String, LatencyRecorder> runPhase(int seconds) throws InterruptedException {
+        Map<String, LatencyRecorder> recorders = new LinkedHashMap<>();
+        mix.routes().forEach(route -> recorders.put(route.name(), new LatencyRecorder()));
+
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        List<Thread> workers = new ArrayList<>(options.concurrency());
+        for (int i = 0; i < options.concurrency(); i++) {
+            workers.add(Thread.ofVirtual().name("load-worker-" + i).start(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    TrafficMix.Route route = mix.next(random);
+                    TrafficMix.Request request = route.request().apply(random);
+                    long started = System.nanoTime();
+                    boolean success;
+                    try {
+                        success = client.send(request.method(), request.path(), request.body()).isSuccess();
+                    } catch (RuntimeException e) {
+                        success = false;
+                    }
+                    recorders.get(route.name()).record(System.nanoTime() - started, success);
+                }
+            }));
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return recorders;
+    }
+}
@@ -0,0 +1,81 @@
+package ru.practicum.loadtest;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.EWMServiceApp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Нагрузочный прогон: подготовка стенда, проверка гонки записи на событие, смесь запросов и отчёт.
+// --compare-virtual-threads=true запускает два прогона на чистых стендах - с потоками платформы
+// и с виртуальными потоками - и сравнивает пропускную способность при одинаковом числе клиентов
+@Slf4j
+public class LoadTestApp {
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        if (!options.inProcess()) {
+            run(options, options.target(), null);
+            return;
+        }
+        if (!options.compareVirtualThreads()) {
+            runInProcess(options);
+            return;
+        }
+
+        LoadReport.Totals platform = runInProcess(options.forRun("--spring.threads.virtual.enabled=false", "platform"));
+        LoadReport.Totals virtual = runInProcess(options.forRun("--spring.threads.virtual.enabled=true", "virtual"));
+        log.info(String.format(Locale.ROOT, "Потоки платформы: %.1f запросов в секунду, ошибок %d; "
+                        + "виртуальные потоки: %.1f запросов в секунду, ошибок %d; отношение %.2f (клиентов %d)",
+                platform.throughput(), platform.errors(), virtual.throughput(), virtual.errors(),
+                virtual.throughput() / platform.throughput(), options.concurrency()));
+    }
+
+    private static LoadReport.Totals runInProcess(LoadTestOptions options) throws Exception {
+        // auto_explain пишет в лог PostgreSQL планы запросов дольше порога - так видны полные сканирования
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder()
+                .setServerConfig("max_connections", "200")
+                .setServerConfig("shared_preload_libraries", "auto_explain")
+                .setServerConfig("auto_explain.log_min_duration", options.explainMinDurationMs() + "ms")
+                .start();
+             FakeStatsServer statsServer = new FakeStatsServer(options.statsLatencyMs());
+             ConfigurableApplicationContext context = startMainService(options, postgres, statsServer)) {
+            String port = context.getEnvironment().getProperty("local.server.port");
+            return run(options, "http://localhost:" + port, statsServer);
+        }
+    }
+
+    private static LoadReport.Totals run(LoadTestOptions options, String baseUrl, FakeStatsServer statsServer)
+            throws Exception {
+        log.info("Нагрузка на {}", baseUrl);
+        EwmApiClient client = new EwmApiClient(baseUrl);
+        DataSeeder seeder = new DataSeeder(client, options);
+        DataSeeder.SeededData data = seeder.seed();
+
+        SignUpRaceCheck.Result race = new SignUpRaceCheck(client, seeder, options).run(data);
+        Map<String, LatencyRecorder.Summary> routes = new LoadRunner(client, new TrafficMix(data), options).run();
+        return LoadReport.write(options, routes, race, statsServer == null ? -1 : statsServer.receivedHits());
+    }
+
+    // main-service с базой во встроенном PostgreSQL, без config-server и eureka; аргументы командной строки
+    // перекрывают application.properties, дополнительные свойства можно передать через параметры запуска
+    private static ConfigurableApplicationContext startMainService(LoadTestOptions options, EmbeddedPostgres postgres,
+                                                                   FakeStatsServer statsServer) {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=",
+                "--spring.cloud.config.enabled=false",
+                "--spring.cloud.config.import-check.enabled=false",
+                "--eureka.client.enabled=false",
+                "--spring.jpa.show-sql=false",
+                "--stats-server.url=http://localhost:" + statsServer.port()));
+        args.addAll(options.serviceArgs());
+        return new SpringApplicationBuilder(EWMServiceApp.class).run(args.toArray(String[]::new));
+    }
+}
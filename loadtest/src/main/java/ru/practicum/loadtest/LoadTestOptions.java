@@ -0,0 +1,80 @@
+package ru.practicum.loadtest;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Параметры запуска в виде --name=value. Неизвестные параметры передаются main-service как свойства Spring
+record LoadTestOptions(String target,
+                       int durationSeconds,
+                       int warmupSeconds,
+                       int concurrency,
+                       int users,
+                       int categories,
+                       int events,
+                       int comments,
+                       int statsLatencyMs,
+                       int raceParticipants,
+                       int raceLimit,
+                       long explainMinDurationMs,
+                       String result,
+                       boolean compareVirtualThreads,
+                       List<String> serviceArgs) {
+    private static final List<String> KNOWN = List.of("target", "duration", "warmup", "concurrency", "users",
+            "categories", "events", "comments", "stats-latency-ms", "race-participants", "race-limit",
+            "explain-min-duration-ms", "result", "compare-virtual-threads");
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        List<String> serviceArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Параметр должен иметь вид --name=value: " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            if (KNOWN.contains(name)) {
+                values.put(name, arg.substring(arg.indexOf('=') + 1));
+            } else {
+                serviceArgs.add(arg);
+            }
+        }
+        return new LoadTestOptions(
+                values.get("target"),
+                intValue(values, "duration", 60),
+                intValue(values, "warmup", 10),
+                intValue(values, "concurrency", 32),
+                intValue(values, "users", 200),
+                intValue(values, "categories", 20),
+                intValue(values, "events", 1000),
+                intValue(values, "comments", 3000),
+                intValue(values, "stats-latency-ms", 5),
+                intValue(values, "race-participants", 200),
+                intValue(values, "race-limit", 50),
+                intValue(values, "explain-min-duration-ms", 50),
+                values.getOrDefault("result", "loadtest-result.json"),
+                Boolean.parseBoolean(values.get("compare-virtual-threads")),
+                serviceArgs);
+    }
+
+    // Копия параметров для одного прогона сравнения: своё свойство main-service и свой файл результатов
+    LoadTestOptions forRun(String serviceArg, String resultSuffix) {
+        List<String> args = new ArrayList<>(serviceArgs);
+        args.add(serviceArg);
+        String runResult = result.endsWith(".json")
+                ? result.substring(0, result.length() - ".json".length()) + "-" + resultSuffix + ".json"
+                : result + "-" + resultSuffix;
+        return new LoadTestOptions(target, durationSeconds, warmupSeconds, concurrency, users, categories, events,
+                comments, statsLatencyMs, raceParticipants, raceLimit, explainMinDurationMs, runResult, false, args);
+    }
+
+    // Без --target поднимаются встроенные PostgreSQL, main-service и заглушка stats-server
+    boolean inProcess() {
+        return target == null;
+    }
+
+    private static int intValue(Map<String, String> values, String name, int defaultValue) {
+        String value = values.get(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+}
@@ -0,0 +1,66 @@
+package ru.practicum.loadtest;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Одновременная запись многих пользователей на событие с лимитом без модерации:
+// подтверждённых заявок должно быть ровно столько, сколько мест
+@Slf4j
+@RequiredArgsConstructor
+class SignUpRaceCheck {
+    private final EwmApiClient client;
+    private final DataSeeder seeder;
+    private final LoadTestOptions options;
+
+    Result run(DataSeeder.SeededData data) throws InterruptedException {
+        long initiatorId = data.userIds().getFirst();
+        long eventId = client.call("POST", "/users/" + initiatorId + "/events",
+                seeder.newEvent(0, data.categoryIds().getFirst(), options.raceLimit(), false)).get("id").asLong();
+        seeder.publish(eventId);
+
+        List<Long> participants = data.userIds().subList(1, Math.min(data.userIds().size(), options.raceParticipants() + 1));
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>(participants.size());
+        for (long userId : participants) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                    int status = client.send("POST", "/users/" + userId + "/requests?eventId=" + eventId, null).status();
+                    (status == 201 ? accepted : status == 409 ? rejected : failed).incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    failed.incrementAndGet();
+                }
+            }));
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long confirmed = client.call("GET", "/users/" + initiatorId + "/events/" + eventId, null)
+                .get("confirmedRequests").asLong();
+        long expected = Math.min(options.raceLimit(), participants.size());
+        Result result = new Result(participants.size(), options.raceLimit(), accepted.get(), rejected.get(),
+                failed.get(), confirmed, confirmed == expected && accepted.get() == expected);
+        if (result.passed()) {
+            log.info("Гонка записи на событие: {}", result);
+        } else {
+            log.error("Гонка записи на событие: лимит нарушен или заявки потеряны: {}", result);
+        }
+        return result;
+    }
+
+    record Result(int participants, int limit, int accepted, int rejected, int failed, long confirmedRequests,
+                  boolean passed) {
+    }
+}
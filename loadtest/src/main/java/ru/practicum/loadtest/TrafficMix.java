@@ -0,0 +1,71 @@
+package ru.practicum.loadtest;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+// Смесь запросов с весами, близкими к реальному трафику: в основном публичное чтение событий
+class TrafficMix {
+    private final List<Route> routes;
+    private final int totalWeight;
+
+    TrafficMix(DataSeeder.SeededData data) {
+        this.routes = List.of(
+                new Route("GET /events?sort=EVENT_DATE", 20, random ->
+                        Request.get("/events?sort=EVENT_DATE&from=" + random.nextInt(5) * 10 + "&size=10")),
+                new Route("GET /events?categories&paid", 5, random ->
+                        Request.get("/events?categories=" + pick(data.categoryIds(), random) + "&paid=" + random.nextBoolean())),
+                new Route("GET /events?sort=VIEWS", 5, random -> Request.get("/events?sort=VIEWS&size=10")),
+                new Route("GET /events?sort=COMMENTS", 5, random -> Request.get("/events?sort=COMMENTS&size=10")),
+                new Route("GET /events?text&sort=RELEVANCE", 5, random ->
+                        Request.get("/events?sort=RELEVANCE&size=10&text=" + URLEncoder.encode(
+                                DataSeeder.WORDS.get(random.nextInt(DataSeeder.WORDS.size())), StandardCharsets.UTF_8))),
+                new Route("GET /events/{id}", 25, random -> Request.get("/events/" + pick(data.eventIds(), random))),
+                new Route("GET /categories", 4, random -> Request.get("/categories?size=20")),
+                new Route("GET /compilations?pinned", 4, random -> Request.get("/compilations?pinned=true")),
+                new Route("GET /comments/{eventId}", 10, random -> Request.get("/comments/" + pick(data.eventIds(), random))),
+                new Route("GET /users/{id}/events", 5, random ->
+                        Request.get("/users/" + pick(data.userIds(), random) + "/events")),
+                new Route("GET /users/{id}/requests", 3, random ->
+                        Request.get("/users/" + pick(data.userIds(), random) + "/requests")),
+                new Route("POST /users/comments/{userId}/{eventId}", 3, random ->
+                        new Request("POST", "/users/comments/" + pick(data.userIds(), random) + "/"
+                                + pick(data.eventIds(), random), Map.of("message", "Комментарий под нагрузкой"))),
+                new Route("GET /admin/events", 3, random -> Request.get("/admin/events?states=PUBLISHED&size=10")),
+                new Route("GET /admin/users", 2, random -> Request.get("/admin/users?size=10")),
+                new Route("GET /admin/comments", 1, random -> Request.get("/admin/comments?size=10")));
+        this.totalWeight = routes.stream().mapToInt(Route::weight).sum();
+    }
+
+    List<Route> routes() {
+        return routes;
+    }
+
+    Route next(ThreadLocalRandom random) {
+        int point = random.nextInt(totalWeight);
+        for (Route route : routes) {
+            point -= route.weight();
+            if (point < 0) {
+                return route;
+            }
+        }
+        return routes.getLast();
+    }
+
+    private static long pick(List<Long> ids, ThreadLocalRandom random) {
+        return ids.get(random.nextInt(ids.size()));
+    }
+
+    // name - шаблон маршрута, по нему группируется отчёт
+    record Route(String name, int weight, Function<ThreadLocalRandom, Request> request) {
+    }
+
+    record Request(String method, String path, Object body) {
+        static Request get(String path) {
+            return new Request("GET", path, null);
+        }
+    }
+}
@@ -15,26 +15,28 @@ public class BaseClient {
         this.rest = rest;
     }
 
-    protected ResponseEntity<Object> get(String path, @Nullable Map<String, Object> parameters) {
-        return makeAndSendRequest(HttpMethod.GET, path, parameters, null);
+    protected <R> ResponseEntity<R> get(String path, @Nullable Map<String, Object> parameters, Class<R> responseType) {
+        return makeAndSendRequest(HttpMethod.GET, path, parameters, null, responseType);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, T body) {
-        return makeAndSendRequest(HttpMethod.POST, path, null, body);
+    protected <T, R> ResponseEntity<R> post(String path, T body, Class<R> responseType) {
+        return makeAndSendRequest(HttpMethod.POST, path, null, body, responseType);
     }
 
-    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, @Nullable Map<String, Object> parameters, @Nullable T body) {
+    // Тело ответа сразу читается в нужный тип конвертером RestTemplate с общим ObjectMapper
+    private <T, R> ResponseEntity<R> makeAndSendRequest(HttpMethod method, String path, @Nullable Map<String, Object> parameters,
+                                                        @Nullable T body, Class<R> responseType) {
         HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders());
 
-        ResponseEntity<Object> responseEntity;
+        ResponseEntity<R> responseEntity;
         try {
             if (parameters != null) {
-                responseEntity = rest.exchange(path, method, requestEntity, Object.class, parameters);
+                responseEntity = rest.exchange(path, method, requestEntity, responseType, parameters);
             } else {
-                responseEntity = rest.exchange(path, method, requestEntity, Object.class);
+                responseEntity = rest.exchange(path, method, requestEntity, responseType);
             }
         } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+            return ResponseEntity.status(e.getStatusCode()).build();
         }
         return prepareGatewayResponse(responseEntity);
     }
@@ -46,7 +48,7 @@ public class BaseClient {
         return headers;
     }
 
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
+    private static <R> ResponseEntity<R> prepareGatewayResponse(ResponseEntity<R> response) {
         if (response.getStatusCode().is2xxSuccessful()) {
             return response;
         }
@@ -59,4 +61,4 @@ public class BaseClient {
 
         return responseBuilder.build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,157 @@
+package ru.practicum.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import ru.practicum.dto.EndpointHitDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Ограниченный неблокирующий буфер хитов: запрос только кладёт хит в очередь,
+// отправка в stats-server идёт пачками в фоне - по размеру пачки или по таймеру
+@Component
+@Slf4j
+public class HitBuffer {
+    private final StatClient statClient;
+    private final LinkedBlockingDeque<EndpointHitDto> queue;
+    private final int batchSize;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutMs;
+    private final ScheduledExecutorService flusher;
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    private final Counter droppedHits;
+    private final Counter failedHits;
+    private final Timer flushTimer;
+
+    public HitBuffer(StatClient statClient,
+                     MeterRegistry meterRegistry,
+                     @Value("${stats-client.buffer.capacity:10000}") int capacity,
+                     @Value("${stats-client.buffer.batch-size:500}") int batchSize,
+                     @Value("${stats-client.buffer.flush-interval-ms:500}") long flushIntervalMs,
+                     @Value("${stats-client.buffer.overflow-policy:DROP_OLDEST}") OverflowPolicy overflowPolicy,
+                     @Value("${stats-client.buffer.block-timeout-ms:50}") long blockTimeoutMs,
+                     @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.statClient = statClient;
+        this.queue = new LinkedBlockingDeque<>(capacity);
+        this.batchSize = batchSize;
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutMs = blockTimeoutMs;
+
+        Gauge.builder("stats.client.buffer.size", queue, LinkedBlockingDeque::size)
+                .description("Количество хитов, ожидающих отправки")
+                .register(meterRegistry);
+        this.droppedHits = Counter.builder("stats.client.hits.dropped")
+                .description("Хиты, отброшенные из-за переполнения буфера")
+                .register(meterRegistry);
+        this.failedHits = Counter.builder("stats.client.hits.failed")
+                .description("Хиты, которые не удалось отправить в stats-server")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("stats.client.flush")
+                .description("Время отправки одной пачки хитов")
+                .register(meterRegistry);
+
+        // Отправка пачки блокируется на HTTP-вызове: в режиме виртуальных потоков она не держит поток платформы
+        this.flusher = Executors.newSingleThreadScheduledExecutor(virtualThreads
+                ? Thread.ofVirtual().name("stats-hit-flusher").factory()
+                : Thread.ofPlatform().name("stats-hit-flusher").daemon().factory());
+        flusher.scheduleWithFixedDelay(this::flushSafely, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void add(EndpointHitDto hit) {
+        boolean accepted = switch (overflowPolicy) {
+            case DROP_NEWEST -> queue.offerLast(hit);
+            case DROP_OLDEST -> offerDroppingOldest(hit);
+            case BLOCK -> offerBlocking(hit);
+        };
+        if (!accepted) {
+            droppedHits.increment();
+        }
+
+        if (queue.size() >= batchSize && flushScheduled.compareAndSet(false, true)) {
+            try {
+                flusher.execute(this::flushSafely);
+            } catch (RejectedExecutionException e) {
+                flushScheduled.set(false);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        try {
+            flusher.execute(this::flushSafely);
+        } catch (RejectedExecutionException e) {
+            return;
+        }
+        flusher.shutdown();
+        try {
+            if (!flusher.awaitTermination(5, TimeUnit.SECONDS)) {
+                log.warn("Не удалось отправить все хиты при остановке, осталось в буфере: {}", queue.size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean offerDroppingOldest(EndpointHitDto hit) {
+        while (!queue.offerLast(hit)) {
+            if (queue.pollFirst() != null) {
+                droppedHits.increment();
+            }
+        }
+        return true;
+    }
+
+    private boolean offerBlocking(EndpointHitDto hit) {
+        try {
+            return queue.offerLast(hit, blockTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // Выполняется только в потоке flusher, поэтому пачки уходят последовательно
+    private void flushSafely() {
+        flushScheduled.set(false);
+        try {
+            List<EndpointHitDto> batch = new ArrayList<>(batchSize);
+            while (queue.drainTo(batch, batchSize) > 0) {
+                send(batch);
+                batch.clear();
+            }
+        } catch (RuntimeException e) {
+            log.error("Исключительная ситуация при отправке пачки хитов: {}", e.getMessage());
+        }
+    }
+
+    private void send(List<EndpointHitDto> batch) {
+        Timer.Sample sample = Timer.start();
+        try {
+            ResponseEntity<Void> response = statClient.saveAll(batch);
+            if (!response.getStatusCode().is2xxSuccessful()) {
+                failedHits.increment(batch.size());
+                log.error("Ошибка при сохранении пачки хитов: {}", response.getStatusCode());
+            }
+        } catch (RuntimeException e) {
+            failedHits.increment(batch.size());
+            log.error("Исключительная ситуация при сохранении пачки хитов: {}", e.getMessage());
+        } finally {
+            sample.stop(flushTimer);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package ru.practicum.client;
+
+// Поведение буфера хитов при заполнении очереди
+public enum OverflowPolicy {
+    DROP_OLDEST,
+    DROP_NEWEST,
+    BLOCK
+}
@@ -1,7 +1,9 @@
 package ru.practicum.client;
 
-import com.fasterxml.jackson.core.type.TypeReference;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
@@ -10,43 +12,78 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.dto.EndpointHitDto;
 import ru.practicum.dto.StatsDto;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 @Component
 @Slf4j
 public class StatClient extends BaseClient {
+    private final MeterRegistry meterRegistry;
 
-    public StatClient(@Value("${stats-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public StatClient(@Value("${stats-server.url}") String serverUrl, RestTemplateBuilder builder,
+                      CloseableHttpClient statsHttpClient, MeterRegistry meterRegistry) {
         super(builder.uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl))
-                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory()).build());
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(statsHttpClient)).build());
+        this.meterRegistry = meterRegistry;
     }
 
     public List<StatsDto> getStats(String start, String end, List<String> uris, Boolean unique) {
+        return getStats(start, end, uris, unique, false);
+    }
+
+    // approximate - уникальные посетители по скетчам HyperLogLog, погрешность около 1.6%
+    public List<StatsDto> getStats(String start, String end, List<String> uris, Boolean unique, boolean approximate) {
 
-        log.info("Вызван метод getStats с параметрами: start={}, end={}, uris={}, unique={}", start, end, uris, unique);
-        String urisParam = String.join(",", uris);
-        Map<String, Object> parameters = Map.of(
+        log.info("Вызван метод getStats с параметрами: start={}, end={}, uris={}, unique={}, approximate={}",
+                start, end, uris, unique, approximate);
+        // uris == null - статистика по всем uri
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "start", start,
                 "end", end,
-                "uris", urisParam,
-                "unique", unique
-        );
-        ResponseEntity<Object> response = get("/stats?start={start}&end={end}&uris={uris}&unique={unique}", parameters);
-        if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-            ObjectMapper mapper = new ObjectMapper();
-            return mapper.convertValue(response.getBody(),
-                    new TypeReference<List<StatsDto>>() {
-                    });
+                "unique", unique,
+                "approximate", approximate
+        ));
+        String path = "/stats?start={start}&end={end}&unique={unique}&approximate={approximate}";
+        if (uris != null) {
+            parameters.put("uris", String.join(",", uris));
+            path += "&uris={uris}";
         }
-        return Collections.emptyList();
+        String statsPath = path;
+        ResponseEntity<StatsDto[]> response = timed("getStats", () ->
+                get(statsPath, parameters, StatsDto[].class));
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            throw new StatsServerException("stats-server вернул статус " + response.getStatusCode());
+        }
+        return response.getBody() == null ? Collections.emptyList() : List.of(response.getBody());
     }
 
-    public ResponseEntity<Object> save(EndpointHitDto endpointHit) {
-        return post("/hit", endpointHit);
+    public ResponseEntity<Void> save(EndpointHitDto endpointHit) {
+        return timed("save", () -> post("/hit", endpointHit, Void.class));
     }
 
-}
\ No newline at end of file
+    public ResponseEntity<Void> saveAll(List<EndpointHitDto> endpointHits) {
+        return timed("saveAll", () -> post("/hits", endpointHits, Void.class));
+    }
+
+    // Время каждого вызова stats-server с разбивкой по операции и исходу
+    private <R> ResponseEntity<R> timed(String operation, Supplier<ResponseEntity<R>> call) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "ERROR";
+        try {
+            ResponseEntity<R> response = call.get();
+            outcome = response.getStatusCode().is2xxSuccessful() ? "SUCCESS"
+                    : response.getStatusCode().is4xxClientError() ? "CLIENT_ERROR" : "SERVER_ERROR";
+            return response;
+        } finally {
+            sample.stop(Timer.builder("stats.client.requests")
+                    .description("Время запроса к stats-server")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package ru.practicum.client;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Пул соединений к stats-server: соединения переиспользуются между запросами,
+// все ожидания ограничены таймаутами, чтобы медленный stats-server не занимал потоки main-service
+@Configuration
+public class StatClientConfig {
+
+    @Bean
+    public CloseableHttpClient statsHttpClient(@Value("${stats-client.http.max-connections:20}") int maxConnections,
+                                               @Value("${stats-client.http.connect-timeout-ms:1000}") long connectTimeoutMs,
+                                               @Value("${stats-client.http.read-timeout-ms:2000}") long readTimeoutMs,
+                                               @Value("${stats-client.http.pool-timeout-ms:500}") long poolTimeoutMs,
+                                               @Value("${stats-client.http.keep-alive-ms:30000}") long keepAliveMs) {
+        // Все запросы идут на один stats-server, поэтому лимит на маршрут равен общему
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnections)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .build())
+                .build();
+
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(poolTimeoutMs))
+                        .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .build())
+                .setKeepAliveStrategy((response, context) -> TimeValue.ofMilliseconds(keepAliveMs))
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(keepAliveMs))
+                .build();
+    }
+}
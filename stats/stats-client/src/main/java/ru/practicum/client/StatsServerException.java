@@ -0,0 +1,8 @@
+package ru.practicum.client;
+
+// stats-server ответил ошибкой: вызывающий код отличает её от пустой статистики
+public class StatsServerException extends RuntimeException {
+    public StatsServerException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,120 @@
+package ru.practicum.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// С виртуальными потоками число одновременных запросов ограничивает не пул потоков Tomcat, а этот фильтр:
+// не больше, чем соединений в пуле базы за вычетом reserved-connections (свёртки, разбиение на секции,
+// запись хитов). Остальные запросы ждут wait-ms и получают 503, клиент main-service отвечает на них
+// запасными значениями
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class StatsConcurrencyLimitFilter extends OncePerRequestFilter {
+    private final Semaphore permits;
+    private final long waitMs;
+    private final Counter rejected;
+
+    public StatsConcurrencyLimitFilter(MeterRegistry meterRegistry,
+                                       @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+                                       @Value("${concurrency-limit.reserved-connections:4}") int reservedConnections,
+                                       @Value("${concurrency-limit.wait-ms:100}") long waitMs) {
+        int maxRequests = Math.max(1, poolSize - reservedConnections);
+        this.permits = new Semaphore(maxRequests);
+        this.waitMs = waitMs;
+        Gauge.builder("http.server.requests.in.flight", permits, p -> maxRequests - p.availablePermits())
+                .description("Запросы, обрабатываемые в данный момент")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("http.server.requests.rejected")
+                .description("Запросы, отклонённые из-за превышения лимита одновременных запросов")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(waitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejected.increment();
+            response.setHeader("Retry-After", "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Превышен лимит одновременных запросов");
+            return;
+        }
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            async = request.isAsyncStarted();
+        } finally {
+            if (async) {
+                // Поток NDJSON пишется в асинхронном потоке и держит соединение с базой до конца ответа:
+                // разрешение возвращается только по завершении асинхронной обработки
+                request.getAsyncContext().addListener(new ReleasingListener());
+            } else {
+                permits.release();
+            }
+        }
+    }
+
+    // Actuator отвечает и под перегрузкой. Хиты не отклоняются: клиент не повторяет пачку и потерял бы её,
+    // а одновременных пачек не больше, чем экземпляров main-service, и соединения им даёт резерв пула
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return uri.startsWith("/actuator") || uri.equals("/hit") || uri.equals("/hits");
+    }
+
+    private class ReleasingListener implements AsyncListener {
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+    }
+}
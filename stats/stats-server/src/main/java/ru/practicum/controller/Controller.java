@@ -1,24 +1,41 @@
 package ru.practicum.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.RequestCreateDto;
 import ru.practicum.RequestDto;
 import ru.practicum.RequestOutputDto;
 import ru.practicum.service.StatsService;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequiredArgsConstructor
 @Validated
 public class Controller {
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+
     private final StatsService service;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
 
     @PostMapping("/hit")
     @ResponseStatus(HttpStatus.CREATED)
@@ -26,11 +43,76 @@ public class Controller {
         return service.create(requestCreateDto);
     }
 
+    @PostMapping(value = "/hits", consumes = "application/json")
+    @ResponseStatus(HttpStatus.CREATED)
+    public void createAll(@RequestBody List<@Valid RequestCreateDto> requestCreateDtos) {
+        service.createAll(requestCreateDtos.iterator());
+    }
+
+    // Поток хитов в формате NDJSON: тело читается построчно и пишется пачками, без загрузки целиком в память
+    @PostMapping(value = "/hits", consumes = APPLICATION_NDJSON)
+    @ResponseStatus(HttpStatus.CREATED)
+    public void createAllStream(InputStream body) throws IOException {
+        try (MappingIterator<RequestCreateDto> hits = objectMapper.readerFor(RequestCreateDto.class).readValues(body)) {
+            service.createAll(validating(hits));
+        }
+    }
+
     @GetMapping("/stats")
     public List<RequestOutputDto> getStats(@RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime start,
                                            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime end,
                                            @RequestParam(required = false) List<String> uris,
-                                           @RequestParam(defaultValue = "false") boolean unique) {
-        return service.getStats(start, end, uris, unique);
+                                           @RequestParam(defaultValue = "false") boolean unique,
+                                           @RequestParam(defaultValue = "false") boolean approximate,
+                                           @RequestParam(required = false) @Positive Integer limit) {
+        return service.getStats(start, end, uris, unique, approximate, limit);
+    }
+
+    // Статистика построчно в NDJSON: строки пишутся в ответ по мере чтения из базы, память не растёт с числом uri
+    @GetMapping(value = "/stats", produces = APPLICATION_NDJSON)
+    public StreamingResponseBody streamStats(@RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime start,
+                                             @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime end,
+                                             @RequestParam(required = false) List<String> uris,
+                                             @RequestParam(defaultValue = "false") boolean unique,
+                                             @RequestParam(defaultValue = "false") boolean approximate,
+                                             @RequestParam(required = false) @Positive Integer limit) {
+        if (start.isAfter(end)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Старт не может быть позже конца");
+        }
+        return out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+                service.streamStats(start, end, uris, unique, approximate, limit, stat -> {
+                    try {
+                        generator.writeObject(stat);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+    }
+
+    private Iterator<RequestCreateDto> validating(Iterator<RequestCreateDto> hits) {
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return hits.hasNext();
+            }
+
+            @Override
+            public RequestCreateDto next() {
+                RequestCreateDto hit = hits.next();
+                Set<ConstraintViolation<RequestCreateDto>> violations = validator.validate(hit);
+                if (!violations.isEmpty()) {
+                    ConstraintViolation<RequestCreateDto> violation = violations.iterator().next();
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                            "Некорректный хит: " + violation.getPropertyPath() + " " + violation.getMessage());
+                }
+                return hit;
+            }
+        };
     }
 }
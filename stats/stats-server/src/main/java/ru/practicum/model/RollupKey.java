@@ -0,0 +1,19 @@
+package ru.practicum.model;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+public record RollupKey(RollupGranularity granularity, LocalDateTime bucketStart, String app, String uri)
+        implements Comparable<RollupKey> {
+
+    // Единый порядок обновления строк снижает риск взаимных блокировок между пачками
+    private static final Comparator<RollupKey> ORDER = Comparator.comparing(RollupKey::granularity)
+            .thenComparing(RollupKey::bucketStart)
+            .thenComparing(RollupKey::app)
+            .thenComparing(RollupKey::uri);
+
+    @Override
+    public int compareTo(RollupKey other) {
+        return ORDER.compare(this, other);
+    }
+}
@@ -0,0 +1,7 @@
+package ru.practicum.model;
+
+import java.time.LocalDateTime;
+
+// Полуинтервал [from, to) бакетов одного размера
+public record RollupRange(RollupGranularity granularity, LocalDateTime from, LocalDateTime to) {
+}
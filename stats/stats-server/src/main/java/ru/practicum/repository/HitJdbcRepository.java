@@ -0,0 +1,26 @@
+package ru.practicum.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.model.EndpointHit;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+// Пакетная запись хитов напрямую через JDBC: IDENTITY-ключ не даёт Hibernate группировать insert-ы
+@org.springframework.stereotype.Repository
+@RequiredArgsConstructor
+public class HitJdbcRepository {
+    private static final String INSERT_HIT = "insert into hits (app, uri, ip, timestamp) values (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insertAll(List<EndpointHit> hits) {
+        jdbcTemplate.batchUpdate(INSERT_HIT, hits, hits.size(), (ps, hit) -> {
+            ps.setString(1, hit.getApp());
+            ps.setString(2, hit.getUri());
+            ps.setString(3, hit.getIp());
+            ps.setTimestamp(4, Timestamp.valueOf(hit.getTimestamp()));
+        });
+    }
+}
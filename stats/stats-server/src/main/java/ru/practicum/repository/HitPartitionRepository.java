@@ -0,0 +1,70 @@
+package ru.practicum.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+// Месячные секции таблицы hits (только PostgreSQL); имя секции - hits_yyyy_MM
+@org.springframework.stereotype.Repository
+public class HitPartitionRepository {
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final String PREFIX = "hits_";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean partitioned;
+
+    public HitPartitionRepository(JdbcTemplate jdbcTemplate, DataSource dataSource) throws MetaDataAccessException {
+        this.jdbcTemplate = jdbcTemplate;
+        String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        this.partitioned = "PostgreSQL".equals(product);
+    }
+
+    public boolean isPartitioned() {
+        return partitioned;
+    }
+
+    public List<String> findPartitionNames() {
+        return jdbcTemplate.queryForList("select c.relname from pg_inherits i " +
+                "join pg_class c on c.oid = i.inhrelid " +
+                "where i.inhparent = 'hits'::regclass and c.relname <> 'hits_default'", String.class);
+    }
+
+    // Хиты месяца, успевшие попасть в hits_default, переносятся в новую секцию до её подключения
+    public void createPartition(LocalDate monthStart) {
+        String name = partitionName(monthStart);
+        String from = monthStart.toString();
+        String to = monthStart.plusMonths(1).toString();
+        jdbcTemplate.execute("create table " + name + " (like hits including defaults)");
+        jdbcTemplate.update("with moved as (delete from hits_default where timestamp >= cast(? as timestamp) " +
+                "and timestamp < cast(? as timestamp) returning *) insert into " + name + " select * from moved", from, to);
+        jdbcTemplate.execute("alter table hits attach partition " + name +
+                " for values from ('" + from + "') to ('" + to + "')");
+    }
+
+    public void dropPartition(String name) {
+        jdbcTemplate.execute("drop table if exists " + name);
+    }
+
+    public static String partitionName(LocalDate monthStart) {
+        return PREFIX + NAME_FORMAT.format(monthStart);
+    }
+
+    // null, если имя не похоже на месячную секцию
+    public static LocalDate monthOf(String partitionName) {
+        if (!partitionName.startsWith(PREFIX)) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(partitionName.substring(PREFIX.length()) + "_01",
+                    DateTimeFormatter.ofPattern("yyyy_MM_dd"));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+}
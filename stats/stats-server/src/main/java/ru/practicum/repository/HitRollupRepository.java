@@ -0,0 +1,125 @@
+package ru.practicum.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import ru.practicum.RequestOutputDto;
+import ru.practicum.model.RollupGranularity;
+import ru.practicum.model.RollupKey;
+import ru.practicum.model.RollupRange;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Агрегированные по бакетам счётчики хитов для каждой пары (app, uri)
+@org.springframework.stereotype.Repository
+public class HitRollupRepository {
+    private static final String UPSERT_POSTGRES = "insert into hit_rollups (granularity, bucket_start, app, uri, hits) " +
+            "values (?, ?, ?, ?, ?) " +
+            "on conflict (granularity, bucket_start, app, uri) do update set hits = hit_rollups.hits + excluded.hits";
+
+    private static final String UPSERT_STANDARD = "merge into hit_rollups r " +
+            "using (select cast(? as varchar(10)) as granularity, cast(? as timestamp) as bucket_start, " +
+            "cast(? as varchar(100)) as app, cast(? as varchar(300)) as uri, cast(? as bigint) as hits) v " +
+            "on r.granularity = v.granularity and r.bucket_start = v.bucket_start and r.app = v.app and r.uri = v.uri " +
+            "when matched then update set hits = r.hits + v.hits " +
+            "when not matched then insert (granularity, bucket_start, app, uri, hits) " +
+            "values (v.granularity, v.bucket_start, v.app, v.uri, v.hits)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate streamingJdbcTemplate;
+    private final String upsertSql;
+
+    public HitRollupRepository(JdbcTemplate jdbcTemplate, DataSource dataSource,
+                               @Value("${stats.stream.fetch-size:500}") int fetchSize) throws MetaDataAccessException {
+        this.jdbcTemplate = jdbcTemplate;
+        // Отдельный шаблон с fetch size: в транзакции PostgreSQL отдаёт строки курсором, а не всем результатом сразу
+        JdbcTemplate streaming = new JdbcTemplate(dataSource);
+        streaming.setFetchSize(fetchSize);
+        this.streamingJdbcTemplate = new NamedParameterJdbcTemplate(streaming);
+        String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        // В PostgreSQL MERGE не защищён от гонки вставок, поэтому используем ON CONFLICT
+        this.upsertSql = "PostgreSQL".equals(product) ? UPSERT_POSTGRES : UPSERT_STANDARD;
+    }
+
+    public void addAll(Map<RollupKey, Long> increments) {
+        List<Map.Entry<RollupKey, Long>> rows = new ArrayList<>(increments.entrySet());
+        jdbcTemplate.batchUpdate(upsertSql, rows, rows.size(), (ps, row) -> {
+            RollupKey key = row.getKey();
+            ps.setString(1, key.granularity().name());
+            ps.setTimestamp(2, Timestamp.valueOf(key.bucketStart()));
+            ps.setString(3, key.app());
+            ps.setString(4, key.uri());
+            ps.setLong(5, row.getValue());
+        });
+    }
+
+    // Полный пересчёт бакетов по сырой таблице hits
+    public void rebuild() {
+        jdbcTemplate.update("delete from hit_rollups");
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            String bucket = "date_trunc('" + granularity.getSqlUnit() + "', timestamp)";
+            jdbcTemplate.update("insert into hit_rollups (granularity, bucket_start, app, uri, hits) " +
+                    "select ?, " + bucket + ", app, uri, count(*) from hits group by " + bucket + ", app, uri",
+                    granularity.name());
+        }
+    }
+
+    // Суммы по бакетам, покрывающим середину интервала, плюс подсчёт сырых строк на неполных краях:
+    // [start, bucketsFrom) и [bucketsTo, end]. limit - только top-N по числу хитов
+    public void getStats(List<RollupRange> buckets, LocalDateTime start, LocalDateTime bucketsFrom,
+                         LocalDateTime bucketsTo, LocalDateTime end, List<String> uris, Integer limit,
+                         Consumer<RequestOutputDto> consumer) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("start", Timestamp.valueOf(start))
+                .addValue("bucketsFrom", Timestamp.valueOf(bucketsFrom))
+                .addValue("bucketsTo", Timestamp.valueOf(bucketsTo))
+                .addValue("end", Timestamp.valueOf(end));
+        if (uris != null) {
+            params.addValue("uris", uris);
+        }
+
+        StringBuilder sql = new StringBuilder("select app, uri, sum(hits) as hits from (");
+        if (!buckets.isEmpty()) {
+            List<String> conditions = new ArrayList<>();
+            for (int i = 0; i < buckets.size(); i++) {
+                RollupRange range = buckets.get(i);
+                conditions.add("(granularity = :g" + i + " and bucket_start >= :bf" + i + " and bucket_start < :bt" + i + ")");
+                params.addValue("g" + i, range.granularity().name());
+                params.addValue("bf" + i, Timestamp.valueOf(range.from()));
+                params.addValue("bt" + i, Timestamp.valueOf(range.to()));
+            }
+            sql.append("select app, uri, hits from hit_rollups where (")
+                    .append(String.join(" or ", conditions)).append(")")
+                    .append(uriFilter(uris))
+                    .append(" union all ");
+        }
+        sql.append("select app, uri, count(*) as hits from hits ")
+                .append("where ((timestamp >= :start and timestamp < :bucketsFrom) ")
+                .append("or (timestamp >= :bucketsTo and timestamp <= :end))")
+                .append(uriFilter(uris))
+                .append(" group by app, uri")
+                .append(") t group by app, uri order by 3 desc");
+        if (limit != null) {
+            sql.append(" limit :limit");
+            params.addValue("limit", limit);
+        }
+
+        streamingJdbcTemplate.query(sql.toString(), params, (RowCallbackHandler) rs ->
+                consumer.accept(new RequestOutputDto(rs.getString("app"), rs.getString("uri"), rs.getLong("hits"))));
+    }
+
+    private static String uriFilter(List<String> uris) {
+        return uris == null ? "" : " and uri in (:uris)";
+    }
+}
@@ -0,0 +1,168 @@
+package ru.practicum.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import ru.practicum.model.HyperLogLog;
+import ru.practicum.model.RollupGranularity;
+import ru.practicum.model.RollupKey;
+import ru.practicum.model.RollupRange;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+// Скетчи HyperLogLog уникальных ip по бакетам для каждой пары (app, uri)
+@org.springframework.stereotype.Repository
+public class HitSketchRepository {
+    private static final String INSERT_EMPTY_POSTGRES = "insert into hit_sketches (granularity, bucket_start, app, uri, registers) " +
+            "values (?, ?, ?, ?, ?) on conflict (granularity, bucket_start, app, uri) do nothing";
+
+    private static final String INSERT_EMPTY_STANDARD = "merge into hit_sketches s " +
+            "using (select cast(? as varchar(10)) as granularity, cast(? as timestamp) as bucket_start, " +
+            "cast(? as varchar(100)) as app, cast(? as varchar(300)) as uri, cast(? as varbinary) as registers) v " +
+            "on s.granularity = v.granularity and s.bucket_start = v.bucket_start and s.app = v.app and s.uri = v.uri " +
+            "when not matched then insert (granularity, bucket_start, app, uri, registers) " +
+            "values (v.granularity, v.bucket_start, v.app, v.uri, v.registers)";
+
+    private static final String KEY_CONDITION = "granularity = ? and bucket_start = ? and app = ? and uri = ?";
+    // Ключей в одном запросе блокировки: 4 параметра на ключ
+    private static final int LOCK_CHUNK_KEYS = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final String insertEmptySql;
+
+    public HitSketchRepository(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedJdbcTemplate,
+                               DataSource dataSource) throws MetaDataAccessException {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        this.insertEmptySql = "PostgreSQL".equals(product) ? INSERT_EMPTY_POSTGRES : INSERT_EMPTY_STANDARD;
+    }
+
+    // Слияние скетчей пачки с сохранёнными: строки порции ключей блокируются и читаются одним запросом
+    // в едином порядке ключей, обновления не теряются
+    public void mergeAll(Map<RollupKey, HyperLogLog> sketches) {
+        List<Map.Entry<RollupKey, HyperLogLog>> rows = new ArrayList<>(sketches.entrySet());
+        byte[] empty = new HyperLogLog().toBytes();
+        jdbcTemplate.batchUpdate(insertEmptySql, rows, rows.size(), (ps, row) -> {
+            setKey(ps, row.getKey());
+            ps.setBytes(5, empty);
+        });
+
+        for (int from = 0; from < rows.size(); from += LOCK_CHUNK_KEYS) {
+            List<Map.Entry<RollupKey, HyperLogLog>> chunk = rows.subList(from, Math.min(from + LOCK_CHUNK_KEYS, rows.size()));
+            List<Object> args = new ArrayList<>(chunk.size() * 4);
+            for (Map.Entry<RollupKey, HyperLogLog> row : chunk) {
+                RollupKey key = row.getKey();
+                args.addAll(List.of(key.granularity().name(), Timestamp.valueOf(key.bucketStart()), key.app(), key.uri()));
+            }
+            String sql = "select granularity, bucket_start, app, uri, registers from hit_sketches " +
+                    "where (granularity, bucket_start, app, uri) in (" +
+                    String.join(", ", Collections.nCopies(chunk.size(), "(?, ?, ?, ?)")) + ") " +
+                    "order by granularity, bucket_start, app, uri for update";
+            jdbcTemplate.query(sql, (RowCallbackHandler) rs -> {
+                RollupKey key = new RollupKey(RollupGranularity.valueOf(rs.getString("granularity")),
+                        rs.getTimestamp("bucket_start").toLocalDateTime(), rs.getString("app"), rs.getString("uri"));
+                HyperLogLog sketch = sketches.get(key);
+                if (sketch != null) {
+                    sketch.merge(HyperLogLog.fromBytes(rs.getBytes("registers")));
+                }
+            }, args.toArray());
+        }
+
+        jdbcTemplate.batchUpdate("update hit_sketches set registers = ? where " + KEY_CONDITION, rows, rows.size(),
+                (ps, row) -> {
+                    ps.setBytes(1, row.getValue().toBytes());
+                    RollupKey key = row.getKey();
+                    ps.setString(2, key.granularity().name());
+                    ps.setTimestamp(3, Timestamp.valueOf(key.bucketStart()));
+                    ps.setString(4, key.app());
+                    ps.setString(5, key.uri());
+                });
+    }
+
+    public void deleteAll() {
+        jdbcTemplate.update("delete from hit_sketches");
+    }
+
+    public void forEachHit(HitConsumer consumer) {
+        jdbcTemplate.query("select app, uri, ip, timestamp from hits order by timestamp", (RowCallbackHandler) rs ->
+                consumer.accept(rs.getString("app"), rs.getString("uri"), rs.getString("ip"),
+                        rs.getTimestamp("timestamp").toLocalDateTime()));
+    }
+
+    // Выдаёт скетчи бакетов, покрывающих середину интервала
+    public void forEachSketch(List<RollupRange> buckets, List<String> uris, SketchConsumer consumer) {
+        if (buckets.isEmpty()) {
+            return;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        List<String> conditions = new ArrayList<>();
+        for (int i = 0; i < buckets.size(); i++) {
+            RollupRange range = buckets.get(i);
+            conditions.add("(granularity = :g" + i + " and bucket_start >= :bf" + i + " and bucket_start < :bt" + i + ")");
+            params.addValue("g" + i, range.granularity().name());
+            params.addValue("bf" + i, Timestamp.valueOf(range.from()));
+            params.addValue("bt" + i, Timestamp.valueOf(range.to()));
+        }
+        String sql = "select app, uri, registers from hit_sketches where (" + String.join(" or ", conditions) + ")";
+        if (uris != null) {
+            sql += " and uri in (:uris)";
+            params.addValue("uris", uris);
+        }
+        namedJdbcTemplate.query(sql, params, (RowCallbackHandler) rs ->
+                consumer.accept(rs.getString("app"), rs.getString("uri"), HyperLogLog.fromBytes(rs.getBytes("registers"))));
+    }
+
+    // Выдаёт различные ip сырых строк на неполных краях интервала: [start, from) и [to, end]
+    public void forEachEdgeIp(LocalDateTime start, LocalDateTime from, LocalDateTime to, LocalDateTime end,
+                              List<String> uris, IpConsumer consumer) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("start", Timestamp.valueOf(start))
+                .addValue("from", Timestamp.valueOf(from))
+                .addValue("to", Timestamp.valueOf(to))
+                .addValue("end", Timestamp.valueOf(end));
+        String sql = "select distinct app, uri, ip from hits " +
+                "where ((timestamp >= :start and timestamp < :from) or (timestamp >= :to and timestamp <= :end))";
+        if (uris != null) {
+            sql += " and uri in (:uris)";
+            params.addValue("uris", uris);
+        }
+        namedJdbcTemplate.query(sql, params, (RowCallbackHandler) rs ->
+                consumer.accept(rs.getString("app"), rs.getString("uri"), rs.getString("ip")));
+    }
+
+    private static void setKey(PreparedStatement ps, RollupKey key) throws SQLException {
+        ps.setString(1, key.granularity().name());
+        ps.setTimestamp(2, Timestamp.valueOf(key.bucketStart()));
+        ps.setString(3, key.app());
+        ps.setString(4, key.uri());
+    }
+
+    @FunctionalInterface
+    public interface SketchConsumer {
+        void accept(String app, String uri, HyperLogLog sketch);
+    }
+
+    @FunctionalInterface
+    public interface IpConsumer {
+        void accept(String app, String uri, String ip);
+    }
+
+    @FunctionalInterface
+    public interface HitConsumer {
+        void accept(String app, String uri, String ip, LocalDateTime timestamp);
+    }
+}
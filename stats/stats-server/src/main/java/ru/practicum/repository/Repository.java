@@ -1,36 +1,47 @@
 package ru.practicum.repository;
 
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import ru.practicum.RequestOutputDto;
 import ru.practicum.model.EndpointHit;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+// Результаты читаются курсором порциями по fetch size; pageable задаёт только top-N
 public interface Repository extends JpaRepository<EndpointHit, Integer> {
 
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
     @Query(value = "select new ru.practicum.RequestOutputDto( h.app, h.uri, count(h.ip))" +
             " from EndpointHit h where h.timestamp >= ?1 and h.timestamp <= ?2 " +
             "group by h.app, h.uri " +
             "order by 3 desc")
-    List<RequestOutputDto> getByNoUnique(LocalDateTime start, LocalDateTime end);
+    Stream<RequestOutputDto> getByNoUnique(LocalDateTime start, LocalDateTime end, Pageable pageable);
 
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
     @Query(value = "select new ru.practicum.RequestOutputDto(h.app, h.uri, count(distinct(h.ip)))" +
             " from EndpointHit h where h.timestamp >= ?1 and h.timestamp <= ?2 " +
             "group by h.app, h.uri " +
             "order by 3 desc")
-    List<RequestOutputDto> getByUnique(LocalDateTime start, LocalDateTime end);
+    Stream<RequestOutputDto> getByUnique(LocalDateTime start, LocalDateTime end, Pageable pageable);
 
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
     @Query(value = "select new ru.practicum.RequestOutputDto( h.app, h.uri, count(h.ip))" +
             " from EndpointHit h where h.timestamp >= ?1 and h.timestamp <= ?2 and h.uri in ?3 " +
             "group by h.app, h.uri " +
             "order by 3 desc")
-    List<RequestOutputDto> getByNoUniqueByUri(LocalDateTime start, LocalDateTime end, List<String> uri);
+    Stream<RequestOutputDto> getByNoUniqueByUri(LocalDateTime start, LocalDateTime end, List<String> uri, Pageable pageable);
 
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
     @Query(value = "select new ru.practicum.RequestOutputDto( h.app, h.uri, count(distinct(h.ip)))" +
             " from EndpointHit h where h.timestamp >= ?1 and h.timestamp <= ?2 and h.uri in ?3 " +
             "group by h.app, h.uri " +
             "order by 3 desc")
-    List<RequestOutputDto> getByUniqueByUri(LocalDateTime start, LocalDateTime end, List<String> uri);
+    Stream<RequestOutputDto> getByUniqueByUri(LocalDateTime start, LocalDateTime end, List<String> uri, Pageable pageable);
 }
@@ -0,0 +1,75 @@
+package ru.practicum.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.repository.HitPartitionRepository;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Заранее создаёт месячные секции hits и, если задан срок хранения, удаляет устаревшие.
+// Агрегаты hit_rollups и hit_sketches за удалённые месяцы сохраняются
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class HitPartitionMaintainer {
+    private final HitPartitionRepository hitPartitionRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${stats.partition.months-ahead:3}")
+    private int monthsAhead;
+
+    // 0 - хранить все секции
+    @Value("${stats.partition.retention-months:0}")
+    private int retentionMonths;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void maintainOnStartup() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${stats.partition.maintenance-cron:0 0 3 * * *}")
+    public void maintain() {
+        if (!hitPartitionRepository.isPartitioned()) {
+            return;
+        }
+        try {
+            LocalDate currentMonth = LocalDate.now().withDayOfMonth(1);
+            List<String> names = hitPartitionRepository.findPartitionNames();
+            createMissing(currentMonth, new HashSet<>(names));
+            if (retentionMonths > 0) {
+                dropExpired(currentMonth.minusMonths(retentionMonths), names);
+            }
+        } catch (RuntimeException e) {
+            log.error("Ошибка обслуживания секций таблицы hits: {}", e.getMessage());
+        }
+    }
+
+    private void createMissing(LocalDate currentMonth, Set<String> existing) {
+        for (int i = 0; i <= monthsAhead; i++) {
+            LocalDate month = currentMonth.plusMonths(i);
+            if (!existing.contains(HitPartitionRepository.partitionName(month))) {
+                transactionTemplate.executeWithoutResult(status -> hitPartitionRepository.createPartition(month));
+                log.info("Создана секция hits за {}", month);
+            }
+        }
+    }
+
+    private void dropExpired(LocalDate oldestKeptMonth, List<String> names) {
+        for (String name : names) {
+            LocalDate month = HitPartitionRepository.monthOf(name);
+            if (month != null && month.isBefore(oldestKeptMonth)) {
+                hitPartitionRepository.dropPartition(name);
+                log.info("Удалена устаревшая секция {}", name);
+            }
+        }
+    }
+}
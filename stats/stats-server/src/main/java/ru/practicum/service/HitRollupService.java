@@ -0,0 +1,94 @@
+package ru.practicum.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.RequestOutputDto;
+import ru.practicum.model.EndpointHit;
+import ru.practicum.model.RollupGranularity;
+import ru.practicum.model.RollupKey;
+import ru.practicum.model.RollupRange;
+import ru.practicum.repository.HitRollupRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class HitRollupService {
+    private final HitRollupRepository hitRollupRepository;
+
+    @Value("${stats.rollup.rebuild-on-startup:false}")
+    private boolean rebuildOnStartup;
+
+    // Вызывается в транзакции записи хитов, чтобы бакеты не расходились с сырыми данными
+    public void record(List<EndpointHit> hits) {
+        Map<RollupKey, Long> increments = new TreeMap<>();
+        for (EndpointHit hit : hits) {
+            for (RollupGranularity granularity : RollupGranularity.values()) {
+                RollupKey key = new RollupKey(granularity, granularity.floor(hit.getTimestamp()), hit.getApp(), hit.getUri());
+                increments.merge(key, 1L, Long::sum);
+            }
+        }
+        hitRollupRepository.addAll(increments);
+    }
+
+    public void getStats(LocalDateTime start, LocalDateTime end, List<String> uris, Integer limit,
+                         Consumer<RequestOutputDto> consumer) {
+        LocalDateTime bucketsFrom = RollupGranularity.MINUTE.ceil(start);
+        LocalDateTime bucketsTo = RollupGranularity.MINUTE.floor(end);
+        if (!bucketsFrom.isBefore(bucketsTo)) {
+            // Интервал короче минуты - считаем только по сырым строкам
+            hitRollupRepository.getStats(List.of(), start, end, end, end, uris, limit, consumer);
+            return;
+        }
+        List<RollupRange> buckets = new ArrayList<>();
+        cover(bucketsFrom, bucketsTo, RollupGranularity.DAY, RollupGranularity.MINUTE, buckets);
+        hitRollupRepository.getStats(buckets, start, bucketsFrom, bucketsTo, end, uris, limit, consumer);
+    }
+
+    @Transactional
+    public void rebuild() {
+        hitRollupRepository.rebuild();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuildOnStartup() {
+        if (rebuildOnStartup) {
+            log.info("Пересчёт агрегированной статистики по таблице hits");
+            hitRollupRepository.rebuild();
+        }
+    }
+
+    // Покрывает выровненный по finest интервал [from, to) самыми крупными бакетами, мелкие остаются только по краям
+    static void cover(LocalDateTime from, LocalDateTime to, RollupGranularity granularity, RollupGranularity finest,
+                      List<RollupRange> result) {
+        if (!from.isBefore(to)) {
+            return;
+        }
+        if (granularity == finest) {
+            result.add(new RollupRange(granularity, from, to));
+            return;
+        }
+        RollupGranularity finer = granularity.finer();
+        LocalDateTime alignedFrom = granularity.ceil(from);
+        LocalDateTime alignedTo = granularity.floor(to);
+        if (!alignedFrom.isBefore(alignedTo)) {
+            cover(from, to, finer, finest, result);
+            return;
+        }
+        cover(from, alignedFrom, finer, finest, result);
+        result.add(new RollupRange(granularity, alignedFrom, alignedTo));
+        cover(alignedTo, to, finer, finest, result);
+    }
+}
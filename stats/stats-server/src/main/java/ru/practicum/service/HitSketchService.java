@@ -0,0 +1,109 @@
+package ru.practicum.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.RequestOutputDto;
+import ru.practicum.model.EndpointHit;
+import ru.practicum.model.HyperLogLog;
+import ru.practicum.model.RollupGranularity;
+import ru.practicum.model.RollupKey;
+import ru.practicum.model.RollupRange;
+import ru.practicum.repository.HitSketchRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Приблизительный подсчёт уникальных ip: скетчи HyperLogLog по часам и дням сливаются при запросе,
+// неполные часы на краях интервала досчитываются по сырым строкам
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class HitSketchService {
+    private static final List<RollupGranularity> SKETCH_GRANULARITIES = List.of(RollupGranularity.HOUR, RollupGranularity.DAY);
+    private static final int REBUILD_FLUSH_KEYS = 1000;
+
+    private final HitSketchRepository hitSketchRepository;
+
+    @Value("${stats.sketch.rebuild-on-startup:false}")
+    private boolean rebuildOnStartup;
+
+    // Вызывается в транзакции записи хитов
+    public void record(List<EndpointHit> hits) {
+        Map<RollupKey, HyperLogLog> sketches = new TreeMap<>();
+        for (EndpointHit hit : hits) {
+            add(sketches, hit.getApp(), hit.getUri(), hit.getIp(), hit.getTimestamp());
+        }
+        hitSketchRepository.mergeAll(sketches);
+    }
+
+    public List<RequestOutputDto> getStats(LocalDateTime start, LocalDateTime end, List<String> uris) {
+        LocalDateTime bucketsFrom = RollupGranularity.HOUR.ceil(start);
+        LocalDateTime bucketsTo = RollupGranularity.HOUR.floor(end);
+        List<RollupRange> buckets = new ArrayList<>();
+        if (bucketsFrom.isBefore(bucketsTo)) {
+            HitRollupService.cover(bucketsFrom, bucketsTo, RollupGranularity.DAY, RollupGranularity.HOUR, buckets);
+        } else {
+            bucketsFrom = end;
+            bucketsTo = end;
+        }
+
+        Map<String, Map<String, HyperLogLog>> merged = new HashMap<>();
+        hitSketchRepository.forEachSketch(buckets, uris, (app, uri, sketch) ->
+                sketchFor(merged, app, uri).merge(sketch));
+        hitSketchRepository.forEachEdgeIp(start, bucketsFrom, bucketsTo, end, uris, (app, uri, ip) ->
+                sketchFor(merged, app, uri).add(ip));
+
+        List<RequestOutputDto> stats = new ArrayList<>();
+        merged.forEach((app, byUri) -> byUri.forEach((uri, sketch) ->
+                stats.add(new RequestOutputDto(app, uri, sketch.estimate()))));
+        stats.sort(Comparator.comparing(RequestOutputDto::getHits).reversed());
+        return stats;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuildOnStartup() {
+        if (rebuildOnStartup) {
+            log.info("Пересчёт скетчей уникальных посетителей по таблице hits");
+            rebuild();
+        }
+    }
+
+    // Хиты читаются по порядку времени, поэтому накопленные скетчи сбрасываются в базу порциями
+    private void rebuild() {
+        hitSketchRepository.deleteAll();
+        Map<RollupKey, HyperLogLog> sketches = new TreeMap<>();
+        hitSketchRepository.forEachHit((app, uri, ip, timestamp) -> {
+            add(sketches, app, uri, ip, timestamp);
+            if (sketches.size() >= REBUILD_FLUSH_KEYS) {
+                hitSketchRepository.mergeAll(sketches);
+                sketches.clear();
+            }
+        });
+        if (!sketches.isEmpty()) {
+            hitSketchRepository.mergeAll(sketches);
+        }
+    }
+
+    private static void add(Map<RollupKey, HyperLogLog> sketches, String app, String uri, String ip,
+                            LocalDateTime timestamp) {
+        for (RollupGranularity granularity : SKETCH_GRANULARITIES) {
+            sketches.computeIfAbsent(new RollupKey(granularity, granularity.floor(timestamp), app, uri),
+                    key -> new HyperLogLog()).add(ip);
+        }
+    }
+
+    private static HyperLogLog sketchFor(Map<String, Map<String, HyperLogLog>> merged, String app, String uri) {
+        return merged.computeIfAbsent(app, key -> new HashMap<>()).computeIfAbsent(uri, key -> new HyperLogLog());
+    }
+}
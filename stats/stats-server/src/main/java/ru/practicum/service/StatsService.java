@@ -5,10 +5,18 @@ import ru.practicum.RequestDto;
 import ru.practicum.RequestOutputDto;
 
 import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface StatsService {
     RequestDto create(RequestCreateDto requestCreateDto);
 
-    List<RequestOutputDto> getStats(LocalDateTime start, LocalDateTime end, List<String> uri, boolean unique);
+    int createAll(Iterator<RequestCreateDto> requestCreateDtos);
+
+    List<RequestOutputDto> getStats(LocalDateTime start, LocalDateTime end, List<String> uri, boolean unique,
+                                    boolean approximate, Integer limit);
+
+    void streamStats(LocalDateTime start, LocalDateTime end, List<String> uri, boolean unique, boolean approximate,
+                     Integer limit, Consumer<RequestOutputDto> consumer);
 }
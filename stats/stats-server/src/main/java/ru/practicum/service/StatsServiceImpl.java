@@ -1,49 +1,137 @@
 package ru.practicum.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 import ru.practicum.RequestCreateDto;
 import ru.practicum.RequestDto;
 import ru.practicum.RequestOutputDto;
+import ru.practicum.model.EndpointHit;
 import ru.practicum.model.Mapper;
+import ru.practicum.repository.HitJdbcRepository;
 import ru.practicum.repository.Repository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class StatsServiceImpl implements StatsService {
     private final Repository repository;
+    private final HitJdbcRepository hitJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final HitRollupService hitRollupService;
+    private final HitSketchService hitSketchService;
+
+    @Value("${stats.ingest.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${stats.rollup.enabled:true}")
+    private boolean rollupEnabled;
+
+    @Value("${stats.sketch.enabled:true}")
+    private boolean sketchEnabled;
 
     @Override
+    @Transactional
     public RequestDto create(RequestCreateDto hitDtoCreate) {
-        return Mapper.toRequestDto(repository.save(Mapper.toEndpointHit(hitDtoCreate)));
+        EndpointHit hit = repository.save(Mapper.toEndpointHit(hitDtoCreate));
+        hitRollupService.record(List.of(hit));
+        if (sketchEnabled) {
+            hitSketchService.record(List.of(hit));
+        }
+        return Mapper.toRequestDto(hit);
+    }
+
+    @Override
+    public int createAll(Iterator<RequestCreateDto> hitDtosCreate) {
+        int total = 0;
+        List<EndpointHit> batch = new ArrayList<>(batchSize);
+        while (hitDtosCreate.hasNext()) {
+            batch.add(Mapper.toEndpointHit(hitDtosCreate.next()));
+            if (batch.size() == batchSize) {
+                total += writeBatch(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            total += writeBatch(batch);
+        }
+        return total;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<RequestOutputDto> getStats(LocalDateTime start, LocalDateTime end, List<String> uri, boolean unique,
+                                           boolean approximate, Integer limit) {
+        List<RequestOutputDto> stats = new ArrayList<>();
+        streamStats(start, end, uri, unique, approximate, limit, stats::add);
+        return stats;
     }
 
+    // Строки передаются потребителю по мере чтения курсора; транзакция держит курсор открытым
     @Override
-    public List<RequestOutputDto> getStats(LocalDateTime start, LocalDateTime end, List<String> uri, boolean unique) {
+    @Transactional(readOnly = true)
+    public void streamStats(LocalDateTime start, LocalDateTime end, List<String> uri, boolean unique,
+                            boolean approximate, Integer limit, Consumer<RequestOutputDto> consumer) {
         if (start.isAfter(end)) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Старт не может быть позже конца");
         }
-        List<RequestOutputDto> stats;
+        if (uri != null && uri.isEmpty()) {
+            return;
+        }
+        if (!unique && rollupEnabled) {
+            hitRollupService.getStats(start, end, uri, limit, consumer);
+            return;
+        }
+        // Без включённых скетчей приблизительный режим сводится к точному подсчёту
+        if (unique && approximate && sketchEnabled) {
+            hitSketchService.getStats(start, end, uri).stream()
+                    .limit(limit == null ? Long.MAX_VALUE : limit)
+                    .forEach(consumer);
+            return;
+        }
+        Pageable pageable = limit == null ? Pageable.unpaged() : PageRequest.of(0, limit);
         boolean isNotBlankUri = (uri != null);
 
+        Stream<RequestOutputDto> stats;
         if (isNotBlankUri) {
             if (unique) {
-                stats = repository.getByUniqueByUri(start, end, uri);
+                stats = repository.getByUniqueByUri(start, end, uri, pageable);
             } else {
-                stats = repository.getByNoUniqueByUri(start, end, uri);
+                stats = repository.getByNoUniqueByUri(start, end, uri, pageable);
             }
         } else {
             if (unique) {
-                stats = repository.getByUnique(start, end);
+                stats = repository.getByUnique(start, end, pageable);
             } else {
-                stats = repository.getByNoUnique(start, end);
+                stats = repository.getByNoUnique(start, end, pageable);
             }
         }
-        return stats;
+        try (stats) {
+            stats.forEach(consumer);
+        }
+    }
+
+    // Каждая пачка пишется в своей транзакции
+    private int writeBatch(List<EndpointHit> batch) {
+        transactionTemplate.executeWithoutResult(status -> {
+            hitJdbcRepository.insertAll(batch);
+            hitRollupService.record(batch);
+            if (sketchEnabled) {
+                hitSketchService.record(batch);
+            }
+        });
+        return batch.size();
     }
 }
@@ -0,0 +1,32 @@
+create table if not exists hits
+(
+    id integer GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    app varchar(100) NOT NULL,
+    uri varchar(300) NOT NULL,
+    ip varchar(300) NOT NULL,
+    timestamp timestamp WITHOUT TIME ZONE NOT NULL,
+    CONSTRAINT pk_hit PRIMARY KEY (id)
+);
+
+create index if not exists idx_hits_uri_timestamp on hits (uri, timestamp);
+create index if not exists idx_hits_timestamp on hits (timestamp);
+
+create table if not exists hit_rollups
+(
+    granularity varchar(10) NOT NULL,
+    bucket_start timestamp WITHOUT TIME ZONE NOT NULL,
+    app varchar(100) NOT NULL,
+    uri varchar(300) NOT NULL,
+    hits bigint NOT NULL,
+    CONSTRAINT pk_hit_rollup PRIMARY KEY (granularity, bucket_start, app, uri)
+);
+
+create table if not exists hit_sketches
+(
+    granularity varchar(10) NOT NULL,
+    bucket_start timestamp WITHOUT TIME ZONE NOT NULL,
+    app varchar(100) NOT NULL,
+    uri varchar(300) NOT NULL,
+    registers bytea NOT NULL,
+    CONSTRAINT pk_hit_sketch PRIMARY KEY (granularity, bucket_start, app, uri)
+);
@@ -0,0 +1,48 @@
+-- hits секционирована по месяцам: первичный ключ обязан включать ключ секционирования
+create table if not exists hits
+(
+    id integer GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    app varchar(100) NOT NULL,
+    uri varchar(300) NOT NULL,
+    ip varchar(300) NOT NULL,
+    timestamp timestamp WITHOUT TIME ZONE NOT NULL,
+    CONSTRAINT pk_hit PRIMARY KEY (id, timestamp)
+) partition by range (timestamp);
+
+-- Хиты вне созданных месячных секций; HitPartitionMaintainer переносит их при создании секции
+create table if not exists hits_default partition of hits default;
+
+create index if not exists idx_hits_uri_timestamp on hits (uri, timestamp);
+create index if not exists idx_hits_timestamp on hits (timestamp);
+
+-- Секции текущего и двух следующих месяцев, чтобы первые хиты не попадали в hits_default
+do $$
+declare
+    month_start date;
+begin
+    for i in 0..2 loop
+        month_start := (date_trunc('month', now()) + make_interval(months => i))::date;
+        execute format('create table if not exists %I partition of hits for values from (%L) to (%L)',
+                       'hits_' || to_char(month_start, 'YYYY_MM'), month_start, month_start + interval '1 month');
+    end loop;
+end $$;
+
+create table if not exists hit_rollups
+(
+    granularity varchar(10) NOT NULL,
+    bucket_start timestamp WITHOUT TIME ZONE NOT NULL,
+    app varchar(100) NOT NULL,
+    uri varchar(300) NOT NULL,
+    hits bigint NOT NULL,
+    CONSTRAINT pk_hit_rollup PRIMARY KEY (granularity, bucket_start, app, uri)
+);
+
+create table if not exists hit_sketches
+(
+    granularity varchar(10) NOT NULL,
+    bucket_start timestamp WITHOUT TIME ZONE NOT NULL,
+    app varchar(100) NOT NULL,
+    uri varchar(300) NOT NULL,
+    registers bytea NOT NULL,
+    CONSTRAINT pk_hit_sketch PRIMARY KEY (granularity, bucket_start, app, uri)
+);
@@ -0,0 +1,109 @@
+package ru.practicum.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HyperLogLogTest {
+    // Стандартная ошибка при p=12 - 1.04 / sqrt(4096) ~ 1.6%; три сигмы с запасом
+    private static final double MAX_ERROR = 0.05;
+
+    @Test
+    void emptySketchEstimatesZero() {
+        assertThat(new HyperLogLog().estimate()).isZero();
+    }
+
+    @Test
+    void smallCardinalityIsNearlyExact() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 100; i++) {
+            sketch.add(ip(i));
+            sketch.add(ip(i));
+        }
+
+        assertThat(sketch.estimate()).isBetween(98L, 102L);
+    }
+
+    @Test
+    void estimateStaysWithinErrorBound() {
+        for (int cardinality : new int[]{1_000, 10_000, 100_000, 1_000_000}) {
+            HyperLogLog sketch = new HyperLogLog();
+            for (int i = 0; i < cardinality; i++) {
+                sketch.add(ip(i));
+            }
+
+            double error = Math.abs(sketch.estimate() - cardinality) / (double) cardinality;
+            assertThat(error).as("ошибка для %d значений", cardinality).isLessThan(MAX_ERROR);
+        }
+    }
+
+    @Test
+    void mergeEqualsSketchOfUnion() {
+        HyperLogLog first = new HyperLogLog();
+        HyperLogLog second = new HyperLogLog();
+        HyperLogLog union = new HyperLogLog();
+        for (int i = 0; i < 60_000; i++) {
+            first.add(ip(i));
+            union.add(ip(i));
+        }
+        for (int i = 40_000; i < 100_000; i++) {
+            second.add(ip(i));
+            union.add(ip(i));
+        }
+
+        first.merge(second);
+
+        assertThat(first.toBytes()).isEqualTo(union.toBytes());
+        assertThat(Math.abs(first.estimate() - 100_000) / 100_000.0).isLessThan(MAX_ERROR);
+    }
+
+    @Test
+    void mergeIsIdempotent() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 5_000; i++) {
+            sketch.add(ip(i));
+        }
+        byte[] before = sketch.toBytes();
+
+        sketch.merge(HyperLogLog.fromBytes(before));
+
+        assertThat(sketch.toBytes()).isEqualTo(before);
+    }
+
+    @Test
+    void serializationRoundTripKeepsRegisters() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 20_000; i++) {
+            sketch.add(ip(i));
+        }
+
+        byte[] bytes = sketch.toBytes();
+        HyperLogLog restored = HyperLogLog.fromBytes(bytes);
+
+        assertThat(bytes).hasSize(HyperLogLog.REGISTERS);
+        assertThat(restored.toBytes()).isEqualTo(bytes);
+        assertThat(restored.estimate()).isEqualTo(sketch.estimate());
+    }
+
+    @Test
+    void serializedBytesAreACopy() {
+        HyperLogLog sketch = new HyperLogLog();
+        byte[] bytes = sketch.toBytes();
+        bytes[0] = 10;
+
+        assertThat(sketch.toBytes()[0]).isZero();
+        HyperLogLog restored = HyperLogLog.fromBytes(bytes);
+        bytes[1] = 10;
+        assertThat(restored.toBytes()[1]).isZero();
+    }
+
+    @Test
+    void malformedBytesGiveEmptySketch() {
+        assertThat(HyperLogLog.fromBytes(null).estimate()).isZero();
+        assertThat(HyperLogLog.fromBytes(new byte[10]).toBytes()).hasSize(HyperLogLog.REGISTERS);
+    }
+
+    private static String ip(int i) {
+        return "10." + (i >>> 16 & 0xff) + "." + (i >>> 8 & 0xff) + "." + (i & 0xff);
+    }
+}